@@ -0,0 +1,489 @@
+import java.util.Arrays;
+
+/**
+ * Implements a search player that looks ahead using iterative-deepening
+ * alpha-beta (negamax) search with a transposition table keyed by the
+ * canonical (symmetry-reduced) Zobrist hash of the position.
+ *
+ * Strategy details:
+ * 1. Searches one ply deeper on every iteration until the time budget runs out
+ *    or the game is solved, and plays the best move of the last full iteration
+ * 2. Orders moves by the transposition table move first, then by the streak
+ *    heuristic of GeniusPlayer (longest own or opponent streak through the cell)
+ * 3. Scores leaves by counting the winning windows still open to each player
+ * 4. On boards larger than 5x5, only considers cells next to existing marks
+ *
+ * As an {@link AnytimePlayer}, the player searches until the deadline given by
+ * the game instead of its own time budget.
+ *
+ * @author Amit Moses
+ */
+public class AlphaBetaPlayer implements Player, AnytimePlayer {
+    /** Default time budget for a single move, in milliseconds */
+    private static final long DEFAULT_BUDGET_MILLIS = 100;
+
+    /** Number of index bits of the transposition table */
+    private static final int TABLE_BITS = 20;
+
+    /** Score of a won position, reduced by the number of plies to the win */
+    private static final int WIN_SCORE = 1_000_000;
+
+    /** Scores above this bound are wins found by the search */
+    private static final int WIN_BOUND = WIN_SCORE - 10_000;
+
+    /** Boards up to this size search every blank cell */
+    private static final int FULL_WIDTH_SIZE = 5;
+
+    /** The clock is checked once every this many nodes (plus one) */
+    private static final int CHECK_TIME_MASK = 63;
+
+    /** Message of the error thrown for rectangular boards */
+    private static final String ERROR_SQUARE = "AlphaBetaPlayer requires a square board";
+
+    // Bound types of transposition table entries
+    private static final int EXACT = 0;
+    private static final int LOWER = 1;
+    private static final int UPPER = 2;
+
+    /** Row and column steps of the four line directions */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /** Number of marks in a row needed to win */
+    private int streak;
+
+    /** Time budget for a single move, in nanoseconds */
+    private long budgetNanos;
+
+    // Transposition table: full hash, score and packed (move, depth, bound) per entry
+    private long[] tableKeys = new long[1 << TABLE_BITS];
+    private int[] tableScores = new int[1 << TABLE_BITS];
+    private int[] tableInfo = new int[1 << TABLE_BITS];
+
+    /** Zobrist keys for the current board size */
+    private Zobrist zobrist;
+
+    /** Symmetries of the current board size */
+    private Symmetry symmetry;
+
+    // Search state of the current move
+    private int size;
+    private Mark[] cells;
+    private int[][] moves;
+    private int[][] moveScores;
+    private long[][] hashes;
+    private Deadline deadline;
+    private long nodes;
+    private boolean aborted;
+    private int rootMove;
+
+    /**
+     * Creates a new AlphaBetaPlayer with the default time budget.
+     *
+     * @param streak Number of marks in a row needed to win
+     */
+    public AlphaBetaPlayer(int streak){
+        this(streak, DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Creates a new AlphaBetaPlayer.
+     *
+     * @param streak Number of marks in a row needed to win
+     * @param budgetMillis Time budget for a single move, in milliseconds
+     */
+    public AlphaBetaPlayer(int streak, long budgetMillis){
+        this.streak = streak;
+        this.budgetNanos = budgetMillis * 1_000_000L;
+    }
+
+    /**
+     * Executes the player's turn by searching for the best move within the
+     * time budget.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     */
+    public void playTurn(Board board, Mark mark) {
+        int move = chooseMove(board, mark, new Deadline(this.budgetNanos));
+        board.putMark(mark, move / size, move % size);
+    }
+
+    /**
+     * Searches for the best move until the deadline expires.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     * @param deadline The deadline of the move
+     * @return The best move of the last finished iteration
+     */
+    @Override
+    public int chooseMove(Board board, Mark mark, Deadline deadline) {
+        this.deadline = deadline;
+        return search(board, mark);
+    }
+
+    /**
+     * Runs the iterative-deepening search from the position on the board.
+     *
+     * @param board The game board
+     * @param mark The mark to move
+     * @return The cell index of the best move found
+     */
+    private int search(Board board, Mark mark) {
+        loadBoard(board);
+        int empty = board.getFreeCount();
+        for(int s = 0; s < Symmetry.COUNT; s++){
+            hashes[0][s] = mark == Mark.O ? zobrist.getSideKey() : 0;
+            for(int i = 0; i < cells.length; i++){
+                if(cells[i] != Mark.BLANK){
+                    hashes[0][s] ^= zobrist.getKey(symmetry.apply(s, i), cells[i]);
+                }
+            }
+        }
+        this.nodes = 0;
+        this.aborted = false;
+
+        int bestMove = firstBlank();
+        for(int depth = 1; depth <= empty; depth++){
+            this.rootMove = -1;
+            int score = negamax(depth, -WIN_SCORE - 1, WIN_SCORE + 1, 0, mark, empty);
+            if(aborted){
+                break;
+            }
+            if(rootMove != -1){
+                bestMove = rootMove;
+            }
+            if(Math.abs(score) > WIN_BOUND){
+                break;
+            }
+        }
+        return bestMove;
+    }
+
+    /**
+     * Searches a position with negamax alpha-beta.
+     * The transposition table is keyed by the canonical hash of the position,
+     * so all eight symmetric positions share one entry. Moves are stored in
+     * the canonical orientation and mapped back on lookup.
+     *
+     * @param depth Remaining depth in plies
+     * @param alpha Lower bound of the search window
+     * @param beta Upper bound of the search window
+     * @param ply Distance from the root in plies
+     * @param toMove The mark to move
+     * @param empty Number of blank cells
+     * @return Score of the position for the mark to move
+     */
+    private int negamax(int depth, int alpha, int beta, int ply, Mark toMove, int empty) {
+        if((++nodes & CHECK_TIME_MASK) == 0 && deadline.isExpired()){
+            aborted = true;
+        }
+        if(aborted || empty == 0){
+            return 0;
+        }
+        if(depth == 0){
+            return evaluate(toMove);
+        }
+
+        long[] symmetric = hashes[ply];
+        int canonical = 0;
+        for(int s = 1; s < Symmetry.COUNT; s++){
+            if(symmetric[s] < symmetric[canonical]){
+                canonical = s;
+            }
+        }
+        long hash = symmetric[canonical];
+        int index = (int) (hash & ((1 << TABLE_BITS) - 1));
+        int tableMove = -1;
+        if(tableKeys[index] == hash){
+            int info = tableInfo[index];
+            int stored = (info >>> 16) - 1;
+            tableMove = stored < 0 ? -1 : symmetry.apply(symmetry.invert(canonical), stored);
+            int score = fromTable(tableScores[index], ply);
+            if(ply > 0 && ((info >>> 8) & 0xFF) >= depth){
+                int bound = info & 0xFF;
+                if(bound == EXACT || (bound == LOWER && score >= beta) || (bound == UPPER && score <= alpha)){
+                    return score;
+                }
+            }
+        }
+
+        Mark opponent = toMove == Mark.X ? Mark.O : Mark.X;
+        int count = orderMoves(ply, toMove, tableMove);
+        int originalAlpha = alpha;
+        int best = -WIN_SCORE - 1;
+        int bestMove = -1;
+        for(int i = 0; i < count; i++){
+            int move = moves[ply][i];
+            cells[move] = toMove;
+            int score;
+            if(isWin(move, toMove)){
+                score = WIN_SCORE - ply;
+            } else {
+                long[] child = hashes[ply + 1];
+                for(int s = 0; s < Symmetry.COUNT; s++){
+                    child[s] = symmetric[s] ^ zobrist.getKey(symmetry.apply(s, move), toMove) ^ zobrist.getSideKey();
+                }
+                score = -negamax(depth - 1, -beta, -alpha, ply + 1, opponent, empty - 1);
+            }
+            cells[move] = Mark.BLANK;
+            if(aborted){
+                return 0;
+            }
+            if(score > best){
+                best = score;
+                bestMove = move;
+                if(score > alpha){
+                    alpha = score;
+                }
+                if(alpha >= beta){
+                    break;
+                }
+            }
+        }
+
+        int bound = best <= originalAlpha ? UPPER : best >= beta ? LOWER : EXACT;
+        tableKeys[index] = hash;
+        tableScores[index] = toTable(best, ply);
+        int storedMove = bestMove < 0 ? -1 : symmetry.apply(canonical, bestMove);
+        tableInfo[index] = ((storedMove + 1) << 16) | (Math.min(depth, 0xFF) << 8) | bound;
+        if(ply == 0){
+            rootMove = bestMove;
+        }
+        return best;
+    }
+
+    /**
+     * Fills the move list of a ply with the candidate moves, best first.
+     *
+     * @param ply Distance from the root in plies
+     * @param toMove The mark to move
+     * @param tableMove Best move stored in the transposition table, or -1
+     * @return Number of candidate moves
+     */
+    private int orderMoves(int ply, Mark toMove, int tableMove) {
+        int[] list = moves[ply];
+        int[] scores = moveScores[ply];
+        Mark opponent = toMove == Mark.X ? Mark.O : Mark.X;
+        boolean fullWidth = size <= FULL_WIDTH_SIZE;
+        int count = 0;
+        for(int cell = 0; cell < cells.length; cell++){
+            if(cells[cell] != Mark.BLANK || !(fullWidth || hasNeighbour(cell))){
+                continue;
+            }
+            int own = maxRun(cell, toMove);
+            int other = maxRun(cell, opponent);
+            int score = cell == tableMove ? Integer.MAX_VALUE : Math.max(own, other) * 2 + (own >= other ? 1 : 0);
+            // insertion sort, the lists are short
+            int j = count++;
+            while(j > 0 && scores[j - 1] < score){
+                list[j] = list[j - 1];
+                scores[j] = scores[j - 1];
+                j--;
+            }
+            list[j] = cell;
+            scores[j] = score;
+        }
+        if(count == 0){
+            list[count++] = cells.length / 2;
+            if(cells[list[0]] != Mark.BLANK){
+                list[0] = firstBlank();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Scores a quiet position by the windows of streak cells that are still
+     * open to only one of the players.
+     *
+     * @param toMove The mark to move
+     * @return Score of the position for the mark to move
+     */
+    private int evaluate(Mark toMove) {
+        int score = 0;
+        for(int[] direction : DIRECTIONS){
+            for(int row = 0; row < size; row++){
+                for(int col = 0; col < size; col++){
+                    int endRow = row + direction[0] * (streak - 1);
+                    int endCol = col + direction[1] * (streak - 1);
+                    if(!isValidCord(endRow, endCol)){
+                        continue;
+                    }
+                    int own = 0;
+                    int other = 0;
+                    for(int k = 0; k < streak; k++){
+                        Mark cell = cells[(row + direction[0] * k) * size + col + direction[1] * k];
+                        if(cell == toMove){
+                            own++;
+                        } else if(cell != Mark.BLANK){
+                            other++;
+                        }
+                    }
+                    if(other == 0 && own > 0){
+                        score += 1 << Math.min(3 * own, 24);
+                    } else if(own == 0 && other > 0){
+                        score -= 1 << Math.min(3 * other, 24);
+                    }
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Checks if the mark placed on a cell completes a winning streak.
+     *
+     * @param cell The cell index of the placed mark
+     * @param mark The placed mark
+     * @return true if the mark wins
+     */
+    private boolean isWin(int cell, Mark mark) {
+        for(int[] direction : DIRECTIONS){
+            if(run(cell, mark, direction[0], direction[1]) + run(cell, mark, -direction[0], -direction[1]) + 1
+                    >= streak){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the longest streak of a mark that a blank cell would join.
+     *
+     * @param cell The cell index
+     * @param mark The mark to count
+     * @return Length of the longest adjacent streak over the four directions
+     */
+    private int maxRun(int cell, Mark mark) {
+        int max = 0;
+        for(int[] direction : DIRECTIONS){
+            int length = run(cell, mark, direction[0], direction[1]) + run(cell, mark, -direction[0], -direction[1]);
+            if(length > max){
+                max = length;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Counts consecutive marks starting next to a cell in one direction.
+     *
+     * @param cell The cell index
+     * @param mark The mark to count
+     * @param addToRow Direction modifier for the row
+     * @param addToCol Direction modifier for the column
+     * @return Number of consecutive marks
+     */
+    private int run(int cell, Mark mark, int addToRow, int addToCol) {
+        int row = cell / size + addToRow;
+        int col = cell % size + addToCol;
+        int count = 0;
+        while(isValidCord(row, col) && cells[row * size + col] == mark){
+            count++;
+            row += addToRow;
+            col += addToCol;
+        }
+        return count;
+    }
+
+    /**
+     * Checks if a cell has a marked cell among its eight neighbours.
+     *
+     * @param cell The cell index
+     * @return true if a neighbour is marked
+     */
+    private boolean hasNeighbour(int cell) {
+        int row = cell / size;
+        int col = cell % size;
+        for(int r = row - 1; r <= row + 1; r++){
+            for(int c = col - 1; c <= col + 1; c++){
+                if(isValidCord(r, c) && cells[r * size + c] != Mark.BLANK){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Copies the board into the search array. When the board size changes,
+     * resets the transposition table and allocates the per-ply move lists and
+     * hashes, which every later move on a board of that size reuses.
+     *
+     * @param board The game board
+     * @throws IllegalArgumentException if the board is not square
+     */
+    private void loadBoard(Board board) {
+        if(board.getRows() != board.getCols()){
+            throw new IllegalArgumentException(ERROR_SQUARE);
+        }
+        if(zobrist == null || board.getSize() != size){
+            this.size = board.getSize();
+            this.zobrist = Zobrist.forCells(size * size);
+            this.symmetry = Symmetry.forSize(size);
+            this.cells = new Mark[size * size];
+            this.moves = new int[cells.length + 1][cells.length];
+            this.moveScores = new int[cells.length + 1][cells.length];
+            this.hashes = new long[cells.length + 1][Symmetry.COUNT];
+            Arrays.fill(tableKeys, 0);
+        }
+        for(int i = 0; i < cells.length; i++){
+            cells[i] = board.getMark(i / size, i % size);
+        }
+    }
+
+    /**
+     * Returns the first blank cell of the search array.
+     *
+     * @return The cell index of the first blank cell, or -1 if the board is full
+     */
+    private int firstBlank() {
+        for(int i = 0; i < cells.length; i++){
+            if(cells[i] == Mark.BLANK){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Validates if the given coordinates are within the board boundaries.
+     *
+     * @param row Row coordinate to validate
+     * @param col Column coordinate to validate
+     * @return true if coordinates are valid, false otherwise
+     */
+    private boolean isValidCord(int row, int col) {
+        return 0 <= row && row < size && 0 <= col && col < size;
+    }
+
+    /**
+     * Converts a score to the form stored in the table, where wins are counted
+     * from the stored position instead of from the root.
+     *
+     * @param score Score relative to the root
+     * @param ply Distance from the root in plies
+     * @return Score relative to the position
+     */
+    private static int toTable(int score, int ply) {
+        if(score > WIN_BOUND){
+            return score + ply;
+        }
+        return score < -WIN_BOUND ? score - ply : score;
+    }
+
+    /**
+     * Converts a stored table score back to a score relative to the root.
+     *
+     * @param score Score relative to the position
+     * @param ply Distance from the root in plies
+     * @return Score relative to the root
+     */
+    private static int fromTable(int score, int ply) {
+        if(score > WIN_BOUND){
+            return score - ply;
+        }
+        return score < -WIN_BOUND ? score + ply : score;
+    }
+}
@@ -0,0 +1,21 @@
+/**
+ * Interface for players that can choose a move within a given time.
+ * A game with a per-move time budget asks an AnytimePlayer for its move
+ * instead of calling {@link Player#playTurn}, and places the returned move
+ * itself. Search players deepen iteratively and return the best move of the
+ * last finished iteration once the deadline expires.
+ *
+ * @author Amit Moses
+ */
+interface AnytimePlayer {
+    /**
+     * Chooses a move without changing the board, returning as soon as
+     * possible once the deadline has expired.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     * @param deadline The deadline of the move
+     * @return The chosen free cell, as row * columns + column
+     */
+    int chooseMove(Board board, Mark mark, Deadline deadline);
+}
@@ -0,0 +1,166 @@
+import java.io.BufferedOutputStream;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * A console renderer that never blocks the game on terminal output.
+ * renderBoard only snapshots the board into a compact frame (one byte per cell)
+ * and hands it to a background thread through a bounded queue. The background
+ * thread formats the frames and prints them through a single buffered stream,
+ * flushing only once the queue is drained, so consecutive frames are written
+ * in one batch.
+ *
+ * When the renderer falls behind and the queue is full, the oldest waiting
+ * frame is dropped in favor of the new one. The latest board is therefore
+ * always rendered, while intermediate boards may be skipped.
+ *
+ * Frames are recycled through a pool, so rendering does not allocate once the
+ * pool is warm.
+ *
+ * @author Amit Moses
+ */
+public class AsyncConsoleRenderer implements Renderer {
+    // Constants for the rendering pipeline
+    private static final int QUEUE_CAPACITY = 64;
+    private static final int OUTPUT_BUFFER = 1 << 16;
+    private static final String THREAD_NAME = "console-renderer";
+    private static final String CELL_SEPARATOR = "|";
+    private static final String ROW_SEPARATOR = "-";
+    private static final String DROPPED_MESSAGE = "(%d boards skipped)\n";
+    private static final char[] MARK_CHARS = {' ', 'X', 'O'};
+
+    private int size;                                 // Size of the rendered boards
+    private String separator;                         // Line printed between rows
+    private ArrayBlockingQueue<byte[]> frames;        // Frames waiting to be rendered
+    private ArrayBlockingQueue<byte[]> pool;          // Rendered frames ready for reuse
+    private PrintStream out;                          // Buffered console output
+    private final Object lock = new Object();         // Guards the frame counters
+    private long submitted;                           // Frames handed to the queue
+    private long rendered;                            // Frames printed by the background thread
+    private long dropped;                             // Frames dropped because the queue was full
+
+    /**
+     * Creates a new renderer and starts its background thread.
+     *
+     * @param size The size of the rendered boards
+     */
+    public AsyncConsoleRenderer(int size){
+        this.size = size;
+        this.separator = ROW_SEPARATOR.repeat(size * 2 - 1);
+        this.frames = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+        this.pool = new ArrayBlockingQueue<>(QUEUE_CAPACITY + 1);
+        this.out = new PrintStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out), OUTPUT_BUFFER));
+        Thread thread = new Thread(this::renderLoop, THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Snapshots the board and queues it for rendering. Never blocks on output;
+     * if the queue is full, the oldest waiting frame is dropped.
+     *
+     * @param board the board to render
+     */
+    @Override
+    public void renderBoard(Board board){
+        byte[] frame = this.pool.poll();
+        if(frame == null){
+            frame = new byte[this.size * this.size];
+        }
+        for(int row = 0; row < this.size; row++){
+            for(int col = 0; col < this.size; col++){
+                frame[row * this.size + col] = (byte) board.getMark(row, col).ordinal();
+            }
+        }
+        synchronized (this.lock){
+            this.submitted++;
+        }
+        while(!this.frames.offer(frame)){
+            byte[] oldest = this.frames.poll();
+            if(oldest != null){
+                this.pool.offer(oldest);
+                synchronized (this.lock){
+                    this.dropped++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Blocks until every queued frame has been rendered or dropped, and the
+     * output has been flushed.
+     */
+    @Override
+    public void flush(){
+        synchronized (this.lock){
+            while(this.rendered + this.dropped < this.submitted){
+                try {
+                    this.lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Body of the background thread: renders frames as they arrive, and
+     * flushes the output whenever the queue runs empty.
+     */
+    private void renderLoop(){
+        StringBuilder text = new StringBuilder();
+        long reportedDrops = 0;
+        while(true){
+            byte[] frame;
+            try {
+                frame = this.frames.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            long drops;
+            synchronized (this.lock){
+                drops = this.dropped;
+            }
+            if(drops > reportedDrops){
+                this.out.printf(DROPPED_MESSAGE, drops - reportedDrops);
+                reportedDrops = drops;
+            }
+            text.setLength(0);
+            format(frame, text);
+            this.out.append(text);
+            this.pool.offer(frame);
+            if(this.frames.isEmpty()){
+                this.out.flush();
+            }
+            synchronized (this.lock){
+                this.rendered++;
+                this.lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Formats a frame as a grid of marks.
+     *
+     * @param frame The frame, one mark ordinal per cell
+     * @param text The builder to append the grid to
+     */
+    private void format(byte[] frame, StringBuilder text){
+        for(int row = 0; row < this.size; row++){
+            if(row > 0){
+                text.append(this.separator).append('\n');
+            }
+            for(int col = 0; col < this.size; col++){
+                if(col > 0){
+                    text.append(CELL_SEPARATOR);
+                }
+                text.append(MARK_CHARS[frame[row * this.size + col]]);
+            }
+            text.append('\n');
+        }
+        text.append('\n');
+    }
+}
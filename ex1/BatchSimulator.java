@@ -0,0 +1,318 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Headless batch simulation of games between two player types, streaming one
+ * fixed-size record per finished game to a file. Memory use does not grow
+ * with the number of games: every worker fills its own direct buffer and
+ * appends it to the file channel when it is full, so nothing but the current
+ * buffers is ever held in memory.
+ *
+ * Every worker plays all of its games on one game and board that are reset
+ * in place. Workers claim blocks of games from a shared counter, and every
+ * game is reseeded from the batch seed and its index as in {@link Tournament},
+ * so the record of a game does not depend on which worker played it. Records
+ * are written in completion order; the game index identifies them.
+ *
+ * File Structure:
+ * - int magic number "TTS2", int board size, int win streak, long batch seed
+ * - the two player types, each as a short length and its UTF-8 bytes
+ * - one 26-byte record per game: long game index, long game seed,
+ *   int duration in microseconds, int number of moves,
+ *   byte winner (0 tie, 1 player 1, 2 player 2), byte player that played X
+ *
+ * @author Amit Moses
+ */
+public class BatchSimulator {
+    // Constants for the file format and scheduling
+    private static final int MAGIC = 0x54545332;
+    private static final int RECORD_BYTES = 26;
+    private static final int RECORDS_PER_BUFFER = 1 << 14;
+    private static final int GAMES_PER_CLAIM = 256;
+    private static final int NUM_PLAYERS = 2;
+    private static final long REPORT_MILLIS = 1000;
+    private static final String DEFAULT_BOARD = "array";
+    private static final String PROGRESS_FORMAT = "progress: %5.1f%% (%d/%d games, %.0f games/s)%n";
+    private static final String SUMMARY_FORMAT = "%d games, %dx%d, streak %d, seed %d%n";
+    private static final String SUMMARY_PLAYER = "Player %d, %s won: %d games, mean move count %.1f%n";
+    private static final String SUMMARY_TIES = "Ties: %d, mean game duration %.1f us%n";
+    private static final String ERROR_FORMAT = "Not a batch simulation file";
+
+    private long games;             // Number of games to play
+    private int size;               // Size of the game board
+    private int winStreak;          // Number of marks in a row needed to win
+    private String[] playerTypes;   // Types of the two players
+    private String boardType;       // Board representation used for every game
+    private long seed;              // Batch seed the game seeds are derived from
+    private ForkJoinPool pool;      // Pool the workers run on
+    private AtomicLong nextGame = new AtomicLong();     // Next unclaimed game index
+    private AtomicLong finished = new AtomicLong();     // Number of finished games
+
+    /**
+     * Creates a batch simulation.
+     *
+     * @param games Number of games to play
+     * @param size Size of the game board
+     * @param winStreak Number of marks in a row needed to win
+     * @param playerType1 Type of the first player, as accepted by {@link PlayerFactory#buildPlayer}
+     * @param playerType2 Type of the second player, as accepted by {@link PlayerFactory#buildPlayer}
+     * @param boardType Board type as accepted by {@link BoardFactory#buildBoard}
+     * @param seed The batch seed
+     * @param pool Fork-join pool the workers run on
+     */
+    public BatchSimulator(long games, int size, int winStreak, String playerType1, String playerType2,
+                          String boardType, long seed, ForkJoinPool pool){
+        this.games = games;
+        this.size = size;
+        this.winStreak = winStreak;
+        this.playerTypes = new String[]{playerType1, playerType2};
+        this.boardType = boardType;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * Plays every game and streams the records to a file, printing a progress
+     * line at a fixed interval.
+     *
+     * @param file The output file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public void run(Path file) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, header());
+            List<ForkJoinTask<?>> workers = new ArrayList<>();
+            for(int i = 0; i < this.pool.getParallelism(); i++){
+                workers.add(this.pool.submit(() -> work(channel)));
+            }
+            for(ForkJoinTask<?> worker : workers){
+                while(true){
+                    try {
+                        worker.get(REPORT_MILLIS, TimeUnit.MILLISECONDS);
+                        break;
+                    } catch (TimeoutException e) {
+                        long done = this.finished.get();
+                        double seconds = (System.nanoTime() - start) / 1e9;
+                        System.err.printf(Locale.ROOT, PROGRESS_FORMAT, 100.0 * done / this.games,
+                                done, this.games, done / seconds);
+                    } catch (ExecutionException e) {
+                        throw new IOException(e.getCause());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Body of a worker: claims blocks of games until all games are claimed,
+     * and appends its buffer to the channel whenever the buffer is full.
+     *
+     * @param channel The output channel
+     */
+    private void work(FileChannel channel){
+        PlayerFactory playerFactory = new PlayerFactory();
+        Player[] players = {playerFactory.buildPlayer(this.playerTypes[0], this.size, this.winStreak),
+                playerFactory.buildPlayer(this.playerTypes[1], this.size, this.winStreak)};
+        Board board = new BoardFactory().buildBoard(this.boardType, this.size);
+        Game runner = new Game(players[0], players[1], board, this.winStreak, new VoidRenderer());
+        ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * RECORDS_PER_BUFFER);
+        try {
+            for(long from = this.nextGame.getAndAdd(GAMES_PER_CLAIM); from < this.games;
+                from = this.nextGame.getAndAdd(GAMES_PER_CLAIM)){
+                long to = Math.min(this.games, from + GAMES_PER_CLAIM);
+                for(long game = from; game < to; game++){
+                    if(buffer.remaining() < RECORD_BYTES){
+                        buffer.flip();
+                        writeFully(channel, buffer);
+                        buffer.clear();
+                    }
+                    playGame(game, players, runner, board, buffer);
+                }
+                this.finished.addAndGet(to - from);
+            }
+            buffer.flip();
+            writeFully(channel, buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Plays a single game and appends its record to the buffer.
+     * Players alternate who plays X, as in {@link Tournament}.
+     *
+     * @param game Index of the game
+     * @param players The two players [player1, player2]
+     * @param runner The worker's game, reset before the game is played
+     * @param board The board of the worker's game
+     * @param buffer Buffer to append the record to
+     */
+    private void playGame(long game, Player[] players, Game runner, Board board, ByteBuffer buffer){
+        long gameSeed = Tournament.seedFor(this.seed, game);
+        Tournament.reseed(players, gameSeed);
+        int xSlot = (int) (game % NUM_PLAYERS);
+        long start = System.nanoTime();
+        runner.reset(players[xSlot], players[1 - xSlot]);
+        Mark winner = runner.run();
+        long micros = (System.nanoTime() - start) / 1000;
+        int moves = board.getMarkCount();
+        int winnerSlot = winner == Mark.BLANK ? 0 : (winner == Mark.X ? xSlot : 1 - xSlot) + 1;
+        buffer.putLong(game)
+              .putLong(gameSeed)
+              .putInt((int) Math.min(Integer.MAX_VALUE, micros))
+              .putInt(moves)
+              .put((byte) winnerSlot)
+              .put((byte) (xSlot + 1));
+    }
+
+    /**
+     * Builds the file header.
+     *
+     * @return The header, ready to be written
+     */
+    private ByteBuffer header(){
+        byte[] name1 = this.playerTypes[0].getBytes(StandardCharsets.UTF_8);
+        byte[] name2 = this.playerTypes[1].getBytes(StandardCharsets.UTF_8);
+        ByteBuffer header = ByteBuffer.allocate(3 * Integer.BYTES + Long.BYTES
+                + 2 * Short.BYTES + name1.length + name2.length);
+        header.putInt(MAGIC).putInt(this.size).putInt(this.winStreak).putLong(this.seed);
+        header.putShort((short) name1.length).put(name1);
+        header.putShort((short) name2.length).put(name2);
+        return header.flip();
+    }
+
+    /**
+     * Writes the whole buffer to the channel. Every call appends at the end
+     * of the file as one operation, so records of different workers never
+     * interleave.
+     *
+     * @param channel The output channel
+     * @param buffer The buffer to write
+     * @throws IOException if writing fails
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        synchronized (channel){
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        }
+    }
+
+    /**
+     * Reads a batch file and prints the win counts, mean move counts and mean
+     * game duration. The file is streamed, so files of any size can be read.
+     *
+     * @param file The batch file
+     * @throws IOException if the file cannot be read or is not a batch file
+     */
+    public static void summarize(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(RECORD_BYTES * RECORDS_PER_BUFFER);
+            channel.read(buffer);
+            buffer.flip();
+            if(buffer.remaining() < 3 * Integer.BYTES + Long.BYTES || buffer.getInt() != MAGIC){
+                throw new IOException(ERROR_FORMAT);
+            }
+            int size = buffer.getInt();
+            int streak = buffer.getInt();
+            long seed = buffer.getLong();
+            String[] names = {readName(buffer), readName(buffer)};
+            long[] wins = new long[NUM_PLAYERS + 1];
+            long[] moves = new long[NUM_PLAYERS + 1];
+            long micros = 0;
+            long count = 0;
+            while(true){
+                while(buffer.remaining() >= RECORD_BYTES){
+                    buffer.getLong();
+                    buffer.getLong();
+                    micros += buffer.getInt();
+                    int moveCount = buffer.getInt();
+                    int winner = buffer.get();
+                    buffer.get();
+                    wins[winner]++;
+                    moves[winner] += moveCount;
+                    count++;
+                }
+                buffer.compact();
+                if(channel.read(buffer) < 0){
+                    break;
+                }
+                buffer.flip();
+            }
+            System.out.printf(SUMMARY_FORMAT, count, size, size, streak, seed);
+            for(int i = 1; i <= NUM_PLAYERS; i++){
+                System.out.printf(Locale.ROOT, SUMMARY_PLAYER, i, names[i - 1], wins[i],
+                        wins[i] == 0 ? 0 : moves[i] / (double) wins[i]);
+            }
+            System.out.printf(Locale.ROOT, SUMMARY_TIES, wins[0], count == 0 ? 0 : micros / (double) count);
+        }
+    }
+
+    /**
+     * Reads a length-prefixed UTF-8 player type.
+     *
+     * @param buffer The buffer to read from
+     * @return The player type
+     */
+    private static String readName(ByteBuffer buffer){
+        byte[] bytes = new byte[buffer.getShort()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Main entry point for batch simulations.
+     * Expected arguments for a simulation:
+     * args[0] - Number of games
+     * args[1] - Board size
+     * args[2] - Win streak
+     * args[3] - First player type
+     * args[4] - Second player type
+     * args[5] - Output file
+     * args[6] - Board type (optional, defaults to "array")
+     * args[7] - Number of parallel workers (optional, defaults to the available processors)
+     * args[8] - Batch seed (optional, random if absent)
+     * With a single argument, the argument is a batch file to summarize.
+     *
+     * @param args Command line arguments as described above
+     * @throws IOException if the file cannot be written or read
+     * @throws InterruptedException if interrupted while waiting for the workers
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if(args.length == 1){
+            summarize(Paths.get(args[0]));
+            return;
+        }
+        long games = Long.parseLong(args[0]);
+        int size = Integer.parseInt(args[1]);
+        int winStreak = Integer.parseInt(args[2]);
+        String boardType = args.length > 6 ? args[6] : DEFAULT_BOARD;
+        int workers = args.length > 7 ? Integer.parseInt(args[7]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 8 ? Long.parseLong(args[8]) : System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            new BatchSimulator(games, size, winStreak, args[3], args[4], boardType, seed, pool)
+                    .run(Paths.get(args[5]));
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,331 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A game board that stores the marks of each player as packed bitboards.
+ * Every cell is a single bit in a long[] per mark, so a board of any size
+ * costs two bits per cell instead of one Mark reference per cell.
+ *
+ * Key Features:
+ * - Same coordinates and move validation as {@link Board}
+ * - One bitboard per mark, sized for any board size
+ * - Win detection that only tests the lines through the last placed cell
+ * - No per-cell indices: streak lengths walk the bitboards, and free and
+ *   marked cells are found by counting bits, a word of 64 cells at a time
+ * - Symmetric Zobrist hashes from the shared key and symmetry tables
+ *
+ * Board Structure:
+ * - Cell index is row * cols + col, as in {@link Board}
+ * - The bit of a cell is bit (index % 64) of word (index / 64)
+ * - Marked cells are listed in ascending cell order
+ *
+ * @author Amit Moses
+ */
+public class BitBoard extends Board {
+    /** Log2 of the number of bits in a word: the word of a cell is its index >>> WORD_SHIFT */
+    private static final int WORD_SHIFT = 6;
+
+    /** Row and column steps of the four line directions */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /** Bitboard of the cells marked with X */
+    private long[] xBits;
+
+    /** Bitboard of the cells marked with O */
+    private long[] oBits;
+
+    /** Number of marked cells */
+    private int count;
+
+    /** Zobrist keys of the cells, shared by all boards of the same area */
+    private Zobrist zobrist;
+
+    /** Symmetries of the board, or null for a rectangular board */
+    private Symmetry symmetry;
+
+    /** Zobrist hash of the position transformed by each symmetry */
+    private long[] hashes = new long[Symmetry.COUNT];
+
+    // Position of the last marked cell returned by getMarkedCell, so listing
+    // the marked cells in order takes one pass over the words
+    private int cursorIndex = -1;
+    private int cursorCell;
+
+    /**
+     * Creates a new bitboard with the specified size.
+     * All cells start as BLANK (no bit set in either bitboard).
+     *
+     * @param size The width/height of the square board
+     */
+    public BitBoard(int size){
+        this(size, size);
+    }
+
+    /**
+     * Creates a new rectangular bitboard.
+     * All cells start as BLANK (no bit set in either bitboard).
+     *
+     * @param rows The number of rows (height) of the board
+     * @param cols The number of columns (width) of the board
+     */
+    public BitBoard(int rows, int cols){
+        super(rows, cols, false, false);
+        int words = (rows * cols + Long.SIZE - 1) >>> WORD_SHIFT;
+        this.xBits = new long[words];
+        this.oBits = new long[words];
+        this.zobrist = Zobrist.forCells(rows * cols);
+        this.symmetry = rows == cols ? Symmetry.forSize(rows) : null;
+    }
+
+    /**
+     * Clears the board in place, including both bitboards.
+     */
+    @Override
+    public void reset(){
+        super.reset();
+        Arrays.fill(this.xBits, 0);
+        Arrays.fill(this.oBits, 0);
+        Arrays.fill(this.hashes, 0);
+        this.count = 0;
+        this.cursorIndex = -1;
+    }
+
+    /**
+     * Retrieves the mark at the specified position.
+     *
+     * @param row The row coordinate (0-based)
+     * @param col The column coordinate (0-based)
+     * @return The mark at the specified position (X, O, or BLANK)
+     */
+    @Override
+    public Mark getMark(int row, int col){
+        if(!isValidCord(row, col)){
+            return Mark.BLANK;
+        }
+        int index = getCols() * row + col;
+        if(isSet(xBits, index)){
+            return Mark.X;
+        }
+        return isSet(oBits, index) ? Mark.O : Mark.BLANK;
+    }
+
+    /**
+     * Returns the longest streak of a mark that a blank cell would join,
+     * by walking the bitboard of the mark along the four lines through the cell.
+     *
+     * @param mark The mark (X or O)
+     * @param row The row of a blank cell
+     * @param col The column of a blank cell
+     * @return Length of the longest adjacent streak, without the cell itself
+     */
+    @Override
+    public int getStreak(Mark mark, int row, int col){
+        if(mark == Mark.BLANK){
+            return 0;
+        }
+        long[] bits = mark == Mark.X ? xBits : oBits;
+        int max = 0;
+        for(int[] direction : DIRECTIONS){
+            max = Math.max(max, lineLength(bits, row, col, direction[0], direction[1]) - 1);
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of free (BLANK) cells on the board.
+     *
+     * @return Number of free cells
+     */
+    @Override
+    public int getFreeCount(){
+        return getRows() * getCols() - this.count;
+    }
+
+    /**
+     * Draws a free cell uniformly at random, by counting the free bits of
+     * every word until the word holding the drawn free cell is reached.
+     *
+     * @param rand Random number generator to draw with
+     * @return The cell index (row * cols + col), or -1 if the board is full
+     */
+    @Override
+    public long getRandomFreeCell(SplittableRandom rand){
+        int free = getFreeCount();
+        if(free == 0){
+            return -1;
+        }
+        int skip = rand.nextInt(free);
+        int cells = getRows() * getCols();
+        for(int word = 0; ; word++){
+            long bits = ~(xBits[word] | oBits[word]);
+            if((word + 1) << WORD_SHIFT > cells){
+                bits &= (1L << cells) - 1;
+            }
+            int bitCount = Long.bitCount(bits);
+            if(skip < bitCount){
+                return ((long) word << WORD_SHIFT) + selectBit(bits, skip);
+            }
+            skip -= bitCount;
+        }
+    }
+
+    /**
+     * Returns the number of marks placed on the board.
+     *
+     * @return Number of marked cells
+     */
+    @Override
+    public int getMarkCount(){
+        return this.count;
+    }
+
+    /**
+     * Returns one of the marked cells, in ascending cell order. Asking for the
+     * marked cells one after the other continues from the previous one, so
+     * listing all of them takes a single pass over the bitboards.
+     *
+     * @param index Index of the marked cell, from 0 to getMarkCount() - 1
+     * @return The cell index (row * cols + col)
+     */
+    @Override
+    public long getMarkedCell(int index){
+        if(this.cursorIndex < 0 || index != this.cursorIndex + 1){
+            this.cursorIndex = -1;
+            this.cursorCell = -1;
+        }
+        int cell = this.cursorCell + 1;
+        int skip = index - this.cursorIndex - 1;
+        int word = cell >>> WORD_SHIFT;
+        long bits = (xBits[word] | oBits[word]) & (-1L << cell);
+        while(skip >= Long.bitCount(bits)){
+            skip -= Long.bitCount(bits);
+            bits = xBits[++word] | oBits[word];
+        }
+        this.cursorIndex = index;
+        this.cursorCell = (word << WORD_SHIFT) + selectBit(bits, skip);
+        return this.cursorCell;
+    }
+
+    /**
+     * Returns the Zobrist hash of the position transformed by a symmetry.
+     *
+     * @param symmetry The symmetry (0 to 7)
+     * @return The hash of the transformed position
+     */
+    @Override
+    public long getHash(int symmetry){
+        return this.hashes[symmetry];
+    }
+
+    /**
+     * Checks whether the last placed mark completed a winning streak.
+     * Walks the bitboard of the mark along the four lines through the last cell.
+     *
+     * @param mark The mark to check for a win
+     * @param streak Number of marks in a row needed to win
+     * @return true if the last move belongs to mark and completed a streak
+     */
+    @Override
+    public boolean isWinningMove(Mark mark, int streak){
+        int row = getLastRow();
+        int col = getLastCol();
+        if(row < 0 || mark == Mark.BLANK){
+            return false;
+        }
+        long[] bits = mark == Mark.X ? xBits : oBits;
+        if(!isSet(bits, getCols() * row + col)){
+            return false;
+        }
+        return lineLength(bits, row, col, 0, 1) >= streak ||
+               lineLength(bits, row, col, 1, 0) >= streak ||
+               lineLength(bits, row, col, 1, 1) >= streak ||
+               lineLength(bits, row, col, 1, -1) >= streak;
+    }
+
+    /**
+     * Places a mark at the specified position by setting its bit.
+     *
+     * @param mark The mark to place (X or O)
+     * @param row The row coordinate
+     * @param col The column coordinate
+     */
+    @Override
+    protected void setMark(Mark mark, int row, int col){
+        int index = getCols() * row + col;
+        long[] bits = mark == Mark.X ? xBits : oBits;
+        bits[index >>> WORD_SHIFT] |= 1L << index;
+    }
+
+    /**
+     * Records a newly placed mark in the mark count and the symmetric hashes.
+     *
+     * @param mark The placed mark
+     * @param row The row of the placed mark
+     * @param col The column of the placed mark
+     */
+    @Override
+    protected void indexMark(Mark mark, int row, int col){
+        int cell = row * getCols() + col;
+        this.count++;
+        this.cursorIndex = -1;
+        for(int s = 0; s < Symmetry.COUNT; s++){
+            int mapped = this.symmetry == null ? cell : this.symmetry.apply(s, cell);
+            this.hashes[s] ^= this.zobrist.getKey(mapped, mark);
+        }
+    }
+
+    /**
+     * Counts the set bits in the line through a cell in one direction and its
+     * opposite, including the cell itself.
+     *
+     * @param bits The bitboard to count in
+     * @param row Row of the starting cell
+     * @param col Column of the starting cell
+     * @param addToRow Direction modifier for the row
+     * @param addToCol Direction modifier for the column
+     * @return Length of the streak through the starting cell
+     */
+    private int lineLength(long[] bits, int row, int col, int addToRow, int addToCol){
+        int count = 1;
+        int r = row + addToRow;
+        int c = col + addToCol;
+        while(isValidCord(r, c) && isSet(bits, getCols() * r + c)){
+            count++;
+            r += addToRow;
+            c += addToCol;
+        }
+        r = row - addToRow;
+        c = col - addToCol;
+        while(isValidCord(r, c) && isSet(bits, getCols() * r + c)){
+            count++;
+            r -= addToRow;
+            c -= addToCol;
+        }
+        return count;
+    }
+
+    /**
+     * Returns the position of the n-th set bit of a word.
+     *
+     * @param bits The word
+     * @param n Number of set bits to skip, less than the bit count of the word
+     * @return The bit position (0 to 63)
+     */
+    private static int selectBit(long bits, int n){
+        for(int i = 0; i < n; i++){
+            bits &= bits - 1;
+        }
+        return Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Tests a single bit of a bitboard.
+     *
+     * @param bits The bitboard
+     * @param index The cell index
+     * @return true if the bit of the cell is set
+     */
+    private static boolean isSet(long[] bits, int index){
+        return (bits[index >>> WORD_SHIFT] & (1L << index)) != 0;
+    }
+}
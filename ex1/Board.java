@@ -1,18 +1,30 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
 /**
  * Represents a game board for a tic-tac-toe style game.
- * The board is implemented as a square grid where players can place their marks.
+ * The board is implemented as a rectangular (by default square) grid where
+ * players can place their marks.
  * This implementation uses a 1D array to represent a 2D board for efficiency,
  * with coordinate conversion handled internally.
  *
  * Key Features:
- * - Customizable board size (defaults to 4x4)
+ * - Customizable board size (defaults to 4x4), square or rectangular
  * - Efficient 1D array storage for 2D board
  * - Validates all moves before placement
  * - Thread-safe mark placement
+ * - Tracks the last placed mark so wins can be detected locally
+ * - Keeps a {@link StreakIndex} so the streak a cell would join is read in O(1)
+ * - Keeps an index of the free cells so a random free cell is drawn in O(1),
+ *   and the marked cells can be listed without scanning the board
+ * - Keeps a Zobrist hash of the position under each of the eight {@link Symmetry symmetries}
+ *   of a square board, so the canonical hash of a position is shared by all of its
+ *   rotations and mirrors
+ * - Can be reset in place, so one board serves many games without reallocation
  *
  * Board Structure:
- * - The board is represented as a 1D array of size N×N
- * - Coordinates are converted using the formula: index = row * size + col
+ * - The board is represented as a 1D array of size rows×cols
+ * - Coordinates are converted using the formula: index = row * cols + col
  * - All cells are initialized as BLANK
  *
  * @author Amit Moses
@@ -21,16 +33,50 @@ public class Board {
     /** Default size of the board if not specified */
     private static final int DEFAULT_SIZE = 4;
 
-    /** Size of the board (both width and height) */
-    private int size;
+    /** Number of rows (height) of the board */
+    private int rows;
+
+    /** Number of columns (width) of the board */
+    private int cols;
 
     /**
      * The game board array.
      * Uses 1D array for better memory efficiency and cache performance.
-     * Index calculation: row * size + col
+     * Index calculation: row * cols + col
      */
     private Mark[] brd;
 
+    /** Row of the last placed mark, or -1 if the board is empty */
+    private int lastRow = -1;
+
+    /** Column of the last placed mark, or -1 if the board is empty */
+    private int lastCol = -1;
+
+    /** Streak lengths around every cell, updated on every placed mark */
+    private StreakIndex streaks;
+
+    /**
+     * The free cells, in no particular order, in the first freeCount slots,
+     * followed by the marked cells. A placed mark swaps its cell with the
+     * last free cell.
+     */
+    private int[] freeCells;
+
+    /** Slot of every free cell in freeCells */
+    private int[] freeSlots;
+
+    /** Number of free cells */
+    private int freeCount;
+
+    /** Zobrist keys of the cells */
+    private Zobrist zobrist;
+
+    /** Symmetries of the board, or null for a rectangular board */
+    private Symmetry symmetry;
+
+    /** Zobrist hash of the position transformed by each symmetry */
+    private long[] hashes = new long[Symmetry.COUNT];
+
     /**
      * Creates a new game board with specified size.
      * Initializes all cells as BLANK and sets up tracking variables.
@@ -39,11 +85,52 @@ public class Board {
      * @throws IllegalArgumentException if size is less than 1
      */
     public Board(int size){
-        this.brd = new Mark[size * size];
-        for(int i = 0; i < this.brd.length; i++){
-            this.brd[i] = Mark.BLANK;
+        this(size, size);
+    }
+
+    /**
+     * Creates a new rectangular game board.
+     *
+     * @param rows The number of rows (height) of the board
+     * @param cols The number of columns (width) of the board
+     */
+    public Board(int rows, int cols){
+        this(rows, cols, true, true);
+    }
+
+    /**
+     * Creates a new game board for subclasses that keep their own cell storage.
+     * When allocateCells is false the Mark array is never created, and the subclass
+     * must override {@link #getMark} and {@link #setMark}. When indexCells is false
+     * none of the per-cell indices (streaks, free cells, hashes) are created, and
+     * the subclass must override {@link #indexMark} and every method that reads them.
+     *
+     * @param rows The number of rows (height) of the board
+     * @param cols The number of columns (width) of the board
+     * @param allocateCells true to allocate the default Mark array storage
+     * @param indexCells true to allocate the default per-cell indices
+     */
+    protected Board(int rows, int cols, boolean allocateCells, boolean indexCells){
+        this.rows = rows;
+        this.cols = cols;
+        if(allocateCells){
+            this.brd = new Mark[rows * cols];
+            for(int i = 0; i < this.brd.length; i++){
+                this.brd[i] = Mark.BLANK;
+            }
+        }
+        if(indexCells){
+            this.streaks = new StreakIndex(rows, cols);
+            this.freeCells = new int[rows * cols];
+            this.freeSlots = new int[rows * cols];
+            for(int i = 0; i < this.freeCells.length; i++){
+                this.freeCells[i] = i;
+                this.freeSlots[i] = i;
+            }
+            this.freeCount = rows * cols;
+            this.zobrist = Zobrist.forCells(rows * cols);
+            this.symmetry = rows == cols ? Symmetry.forSize(rows) : null;
         }
-        this.size = size;
     }
 
     /**
@@ -54,14 +141,56 @@ public class Board {
         this(DEFAULT_SIZE);
     }
 
+    /**
+     * Clears the board in place, without reallocating any of its arrays.
+     * The board is left exactly as a newly created board of the same size,
+     * including the order of the free-cell index, so a seeded game played on
+     * a reset board makes the same moves as on a new one.
+     */
+    public void reset(){
+        if(this.brd != null){
+            Arrays.fill(this.brd, Mark.BLANK);
+        }
+        if(this.streaks != null){
+            this.streaks.reset();
+            for(int i = 0; i < this.freeCells.length; i++){
+                this.freeCells[i] = i;
+                this.freeSlots[i] = i;
+            }
+            this.freeCount = this.freeCells.length;
+            Arrays.fill(this.hashes, 0);
+        }
+        this.lastRow = -1;
+        this.lastCol = -1;
+    }
+
     /**
      * Returns the size of the board.
-     * Both width and height are equal to this value.
+     * On square boards both width and height are equal to this value; on
+     * rectangular boards it is the width (number of columns).
      *
      * @return The size of one side of the square board
      */
     public int getSize(){
-        return this.size;
+        return this.cols;
+    }
+
+    /**
+     * Returns the number of rows (height) of the board.
+     *
+     * @return Number of rows
+     */
+    public int getRows(){
+        return this.rows;
+    }
+
+    /**
+     * Returns the number of columns (width) of the board.
+     *
+     * @return Number of columns
+     */
+    public int getCols(){
+        return this.cols;
     }
 
     /**
@@ -74,8 +203,11 @@ public class Board {
      * @return true if mark was successfully placed, false if invalid move
      */
     public boolean putMark(Mark mark, int row, int col){
-        if(isValidCord(row, col) && this.isBlank(row, col)){
+        if(mark != Mark.BLANK && isValidCord(row, col) && this.isBlank(row, col)){
             this.setMark(mark, row, col);
+            this.indexMark(mark, row, col);
+            this.lastRow = row;
+            this.lastCol = col;
             return true;
         }
         return false;
@@ -90,7 +222,199 @@ public class Board {
      * @return The mark at the specified position (X, O, or BLANK)
      */
     public Mark getMark(int row, int col){
-        return isValidCord(row, col) ? this.brd[size * row + col] : Mark.BLANK;
+        return isValidCord(row, col) ? this.brd[cols * row + col] : Mark.BLANK;
+    }
+
+    /**
+     * Returns the row of the last mark placed on the board.
+     *
+     * @return The row of the last placed mark, or -1 if no mark was placed
+     */
+    public int getLastRow(){
+        return this.lastRow;
+    }
+
+    /**
+     * Returns the column of the last mark placed on the board.
+     *
+     * @return The column of the last placed mark, or -1 if no mark was placed
+     */
+    public int getLastCol(){
+        return this.lastCol;
+    }
+
+    /**
+     * Returns the longest streak of a mark that a blank cell would join,
+     * read from the streak index without walking the board.
+     *
+     * @param mark The mark (X or O)
+     * @param row The row of a blank cell
+     * @param col The column of a blank cell
+     * @return Length of the longest adjacent streak, without the cell itself
+     */
+    public int getStreak(Mark mark, int row, int col){
+        return this.streaks.getStreak(mark, row, col);
+    }
+
+    /**
+     * Returns the number of free (BLANK) cells on the board.
+     *
+     * @return Number of free cells
+     */
+    public int getFreeCount(){
+        return this.freeCount;
+    }
+
+    /**
+     * Draws a free cell uniformly at random, in constant time regardless of
+     * how full the board is.
+     *
+     * @param rand Random number generator to draw with
+     * @return The cell index (row * cols + col), or -1 if the board is full
+     */
+    public long getRandomFreeCell(SplittableRandom rand){
+        return this.freeCount == 0 ? -1 : this.freeCells[rand.nextInt(this.freeCount)];
+    }
+
+    /**
+     * Returns the number of marks placed on the board.
+     *
+     * @return Number of marked cells
+     */
+    public int getMarkCount(){
+        return this.freeCells.length - this.freeCount;
+    }
+
+    /**
+     * Returns one of the marked cells. Together with {@link #getMarkCount},
+     * lets players visit the neighbourhood of every mark without scanning the
+     * whole board. The order of the marked cells is unspecified and changes
+     * when a mark is placed.
+     *
+     * @param index Index of the marked cell, from 0 to getMarkCount() - 1
+     * @return The cell index (row * cols + col)
+     */
+    public long getMarkedCell(int index){
+        return this.freeCells[this.freeCount + index];
+    }
+
+    /**
+     * Returns the Zobrist hash of the position transformed by a symmetry.
+     * The hash of symmetry 0 is the plain hash of the position.
+     *
+     * @param symmetry The symmetry (0 to 7)
+     * @return The hash of the transformed position
+     */
+    public long getHash(int symmetry){
+        return this.hashes[symmetry];
+    }
+
+    /**
+     * Returns the canonical hash of the position: the smallest of its eight
+     * symmetric hashes. Positions that are rotations or mirrors of each other
+     * have the same canonical hash.
+     *
+     * @return The canonical hash
+     */
+    public long getCanonicalHash(){
+        return getHash(getCanonicalSymmetry());
+    }
+
+    /**
+     * Returns the symmetry that transforms the position into its canonical
+     * orientation. Cells of the canonical position map back to this board with
+     * the inverse symmetry. Rectangular boards only have the identity.
+     *
+     * @return The symmetry (0 to 7) with the smallest hash
+     */
+    public int getCanonicalSymmetry(){
+        int best = 0;
+        for(int s = 1; s < Symmetry.COUNT; s++){
+            if(getHash(s) < getHash(best)){
+                best = s;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks whether the last placed mark completed a winning streak.
+     * Only the row, column and two diagonals passing through the last placed
+     * cell are inspected, since any new streak must contain that cell.
+     *
+     * @param mark The mark to check for a win
+     * @param streak Number of marks in a row needed to win
+     * @return true if the last move belongs to mark and completed a streak
+     */
+    public boolean isWinningMove(Mark mark, int streak){
+        if(lastRow < 0 || getMark(lastRow, lastCol) != mark){
+            return false;
+        }
+        return lineLength(mark, 0, 1) >= streak ||
+               lineLength(mark, 1, 0) >= streak ||
+               lineLength(mark, 1, 1) >= streak ||
+               lineLength(mark, 1, -1) >= streak;
+    }
+
+    /**
+     * Counts the marks in the line through the last placed cell in one direction
+     * and its opposite, including the last placed cell itself.
+     *
+     * @param mark The mark to count
+     * @param addToRow Direction modifier for the row
+     * @param addToCol Direction modifier for the column
+     * @return Length of the streak through the last placed cell
+     */
+    private int lineLength(Mark mark, int addToRow, int addToCol){
+        int count = 1;
+        int row = lastRow + addToRow;
+        int col = lastCol + addToCol;
+        while(getMark(row, col) == mark){
+            count++;
+            row += addToRow;
+            col += addToCol;
+        }
+        row = lastRow - addToRow;
+        col = lastCol - addToCol;
+        while(getMark(row, col) == mark){
+            count++;
+            row -= addToRow;
+            col -= addToCol;
+        }
+        return count;
+    }
+
+    /**
+     * Removes a cell from the free-cell index by swapping it with the last
+     * free cell, which moves it to the front of the marked cells.
+     *
+     * @param cell The cell index (row * cols + col) of a newly marked cell
+     */
+    private void removeFreeCell(int cell){
+        int slot = this.freeSlots[cell];
+        int last = this.freeCells[--this.freeCount];
+        this.freeCells[slot] = last;
+        this.freeSlots[last] = slot;
+        this.freeCells[this.freeCount] = cell;
+        this.freeSlots[cell] = this.freeCount;
+    }
+
+    /**
+     * Updates the per-cell indices after a mark was placed on a blank cell:
+     * the streak index, the free-cell index and the symmetric hashes.
+     *
+     * @param mark The placed mark
+     * @param row The row of the placed mark
+     * @param col The column of the placed mark
+     */
+    protected void indexMark(Mark mark, int row, int col){
+        int cell = row * cols + col;
+        this.streaks.update(mark, row, col);
+        this.removeFreeCell(cell);
+        for(int s = 0; s < Symmetry.COUNT; s++){
+            int mapped = this.symmetry == null ? cell : this.symmetry.apply(s, cell);
+            this.hashes[s] ^= this.zobrist.getKey(mapped, mark);
+        }
     }
 
     /**
@@ -100,8 +424,8 @@ public class Board {
      * @param col Column coordinate to validate
      * @return true if coordinates are valid, false otherwise
      */
-    private boolean isValidCord(int row, int col) {
-        return 0 <= row && row < size && 0 <= col && col < size;
+    protected boolean isValidCord(int row, int col) {
+        return 0 <= row && row < rows && 0 <= col && col < cols;
     }
 
     /**
@@ -124,7 +448,7 @@ public class Board {
      * @param row The row coordinate
      * @param col The column coordinate
      */
-    private void setMark(Mark mark, int row, int col){
-        this.brd[size * row + col] = mark;
+    protected void setMark(Mark mark, int row, int col){
+        this.brd[cols * row + col] = mark;
     }
 }
@@ -0,0 +1,48 @@
+/**
+ * Factory class for creating different types of boards.
+ * Implements the Factory design pattern to The Single Responsibility Principle.
+ *
+ * Supported board types:
+ * - array: Board backed by a Mark array
+ * - bitboard: Board backed by packed bitboards per mark
+ * - sparse: Board that only stores its occupied cells
+ *
+ * @author Amit Moses
+ */
+public class BoardFactory {
+    /**
+     * Creates a new BoardFactory instance.
+     */
+    public BoardFactory(){}
+
+    /**
+     * Creates a board instance based on the specified type.
+     *
+     * @param type String identifier for board type:
+     *             "array" - Mark array board
+     *             "bitboard" - Bitboard board
+     *             "sparse" - Sparse board
+     * @param size the size of the board
+     * @return Board instance of requested type, or null if type is invalid
+     */
+    public Board buildBoard(String type, int size){
+        return buildBoard(type, size, size);
+    }
+
+    /**
+     * Creates a rectangular board instance based on the specified type.
+     *
+     * @param type String identifier for board type, as in {@link #buildBoard(String, int)}
+     * @param rows the number of rows of the board
+     * @param cols the number of columns of the board
+     * @return Board instance of requested type, or null if type is invalid
+     */
+    public Board buildBoard(String type, int rows, int cols){
+        return switch (type) {
+            case "array" -> new Board(rows, cols);
+            case "bitboard" -> new BitBoard(rows, cols);
+            case "sparse" -> new SparseBoard(rows, cols);
+            default -> null;
+        };
+    }
+}
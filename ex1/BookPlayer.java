@@ -0,0 +1,118 @@
+/**
+ * A player decorator that plays the opening from the {@link OpeningBook} of
+ * the board configuration, and leaves every other move to the player it
+ * wraps. The book is loaded when the player is created, from a file built
+ * beforehand with {@link OpeningBook#main}.
+ *
+ * Boards of another size than the book's, and positions that are not in the
+ * book, are played by the wrapped player. Reseeding is forwarded to the
+ * wrapped player, and a wrapped {@link AnytimePlayer} stays one when it is
+ * wrapped with {@link #wrap}.
+ *
+ * @author Amit Moses
+ */
+public class BookPlayer implements Player, Seedable {
+    private Player player;          // The wrapped player
+    private OpeningBook book;       // Book of the board configuration
+
+    /**
+     * Wraps a player, loading the book of the board configuration.
+     *
+     * @param player The player to play the moves after the opening
+     * @param size Size of the board the book is for
+     * @param streak Number of marks in a row needed to win
+     * @throws IllegalStateException if the book file has not been built
+     */
+    public BookPlayer(Player player, int size, int streak){
+        this.player = player;
+        this.book = OpeningBook.forConfig(size, streak);
+    }
+
+    /**
+     * Wraps a player, keeping the player's time-budgeted moves if it is an
+     * {@link AnytimePlayer}.
+     *
+     * @param player The player to play the moves after the opening
+     * @param size Size of the board the book is for
+     * @param streak Number of marks in a row needed to win
+     * @return The book player
+     * @throws IllegalStateException if the book file has not been built
+     */
+    public static BookPlayer wrap(Player player, int size, int streak){
+        return player instanceof AnytimePlayer ? new AnytimeBookPlayer(player, size, streak)
+                : new BookPlayer(player, size, streak);
+    }
+
+    /**
+     * Restarts the random number generator of the wrapped player, if it has one.
+     *
+     * @param seed The seed
+     */
+    @Override
+    public void setSeed(long seed){
+        if(this.player instanceof Seedable seedable){
+            seedable.setSeed(seed);
+        }
+    }
+
+    /**
+     * Plays the book move, or the wrapped player's move when the position is
+     * not in the book.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     */
+    @Override
+    public void playTurn(Board board, Mark mark){
+        int cell = this.book.getBookMove(board);
+        if(cell >= 0 && board.putMark(mark, cell / board.getCols(), cell % board.getCols())){
+            return;
+        }
+        this.player.playTurn(board, mark);
+    }
+
+    /**
+     * Looks up the book move of a position.
+     *
+     * @param board The game board
+     * @return The book cell, or -1 if the position is not in the book
+     */
+    int getBookMove(Board board){
+        return this.book.getBookMove(board);
+    }
+
+    /**
+     * A book player wrapping an {@link AnytimePlayer}, which plays book moves
+     * at once and searches the other moves within the game's deadline.
+     */
+    private static class AnytimeBookPlayer extends BookPlayer implements AnytimePlayer {
+        private AnytimePlayer anytime;  // The wrapped player
+
+        /**
+         * Wraps an AnytimePlayer.
+         *
+         * @param player The player to play the moves after the opening, which must be an AnytimePlayer
+         * @param size Size of the board the book is for
+         * @param streak Number of marks in a row needed to win
+         */
+        AnytimeBookPlayer(Player player, int size, int streak){
+            super(player, size, streak);
+            this.anytime = (AnytimePlayer) player;
+        }
+
+        /**
+         * Chooses the book move, or the wrapped player's move within the
+         * deadline when the position is not in the book.
+         *
+         * @param board The game board
+         * @param mark The player's mark (X or O)
+         * @param deadline The deadline of the move
+         * @return The chosen cell
+         */
+        @Override
+        public int chooseMove(Board board, Mark mark, Deadline deadline){
+            int cell = getBookMove(board);
+            return cell >= 0 ? cell : this.anytime.chooseMove(board, mark, deadline);
+        }
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * A point in time by which a move should be chosen, passed to an
+ * {@link AnytimePlayer} by the game. A search polls {@link #isExpired} and
+ * returns its best move so far once the deadline has passed.
+ *
+ * The deadline is soft: the search only notices it when it polls, and the
+ * JVM may pause the search (compilation, garbage collection, or other threads
+ * on a busy machine), so a move can still return after the deadline.
+ * {@link #overrunNanos} tells by how much.
+ *
+ * @author Amit Moses
+ */
+public class Deadline {
+    private long expiresAt;             // Value of System.nanoTime() at which the deadline passes
+
+    /**
+     * Creates a deadline a given time from now.
+     *
+     * @param budgetNanos Time until the deadline, in nanoseconds
+     */
+    public Deadline(long budgetNanos){
+        this.expiresAt = System.nanoTime() + budgetNanos;
+    }
+
+    /**
+     * Creates a deadline a given number of milliseconds from now.
+     *
+     * @param budgetMillis Time until the deadline, in milliseconds
+     * @return The deadline
+     */
+    public static Deadline afterMillis(long budgetMillis){
+        return new Deadline(budgetMillis * 1_000_000L);
+    }
+
+    /**
+     * Checks whether the search must stop.
+     *
+     * @return true if the deadline has passed
+     */
+    public boolean isExpired(){
+        return System.nanoTime() - this.expiresAt >= 0;
+    }
+
+    /**
+     * Returns the time left until the deadline.
+     *
+     * @return Remaining time in nanoseconds, 0 if the deadline has passed
+     */
+    public long remainingNanos(){
+        return Math.max(0, this.expiresAt - System.nanoTime());
+    }
+
+    /**
+     * Returns how long ago the deadline passed.
+     *
+     * @return Time since the deadline in nanoseconds, negative before it
+     */
+    public long overrunNanos(){
+        return System.nanoTime() - this.expiresAt;
+    }
+}
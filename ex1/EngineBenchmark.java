@@ -0,0 +1,394 @@
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Micro-benchmarks for the tic-tac-toe engine.
+ * Measures win detection, mark placement, full games, tournament rounds on
+ * fresh and on reset games, rounds of a parallel tournament, and the move latency of the AI players, and prints
+ * one CSV record per measurement so results of two builds can be diffed.
+ *
+ * Every measurement runs warmup rounds first, then reports the mean time and
+ * the mean number of bytes allocated by the benchmark thread (by all threads
+ * for the parallel tournament) per operation over the measured rounds. Setup work (building boards and players) is
+ * excluded from the measured sections. Bytes are reported as "n/a" on JVMs
+ * that do not count allocations per thread.
+ *
+ * Record format:
+ * benchmark,board,size,streak,player,operations,ns_per_op,bytes_per_op
+ *
+ * @author Amit Moses
+ */
+public class EngineBenchmark {
+    // Constants for the benchmark configuration
+    private static final String HEADER = "benchmark,board,size,streak,player,operations,ns_per_op,bytes_per_op";
+    private static final String RECORD_FORMAT = "%s,%s,%d,%d,%s,%d,%.1f,%s";
+    private static final String BYTES_FORMAT = "%.1f";
+    private static final String UNKNOWN = "n/a";
+    private static final long UNKNOWN_BYTES = -1;
+    private static final String NONE = "-";
+    private static final String SINK_MESSAGE = "checksum: ";
+    private static final String[] BOARD_TYPES = {"array", "bitboard", "sparse"};
+    private static final String[] PLAYER_TYPES = {"whatever", "clever", "genius"};
+    private static final String ROUND_PLAYER = "whatever";
+    private static final int MIN_SIZE = 3;
+    private static final int MAX_SIZE = 20;
+    private static final int MIN_STREAK = 3;
+    private static final int MAX_STREAK = 5;
+    private static final int[] GAME_SIZES = {4, 10, 20};
+    private static final int WARMUP_ROUNDS = 3;
+    private static final int MEASURE_ROUNDS = 5;
+    private static final int OPS_PER_ROUND = 20_000;
+    private static final int GAMES_PER_ROUND = 200;
+    private static final int PARALLEL_ROUNDS = 2048;
+    private static final long SEED = 42;
+    private static final int NANOS = 0;
+    private static final int BYTES = 1;
+
+    /** Source of the per-thread allocation counters, on JVMs that have them */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /** Accumulates results so the measured work cannot be optimized away */
+    private static long sink;
+
+    private PrintStream out;
+    private BoardFactory boardFactory = new BoardFactory();
+    private PlayerFactory playerFactory = new PlayerFactory();
+
+    /**
+     * Creates a benchmark that prints its records to the given stream.
+     *
+     * @param out Stream the CSV records are printed to
+     */
+    public EngineBenchmark(PrintStream out){
+        this.out = out;
+    }
+
+    /**
+     * Runs every benchmark and prints the records.
+     */
+    public void runAll(){
+        out.println(HEADER);
+        for(String boardType : BOARD_TYPES){
+            for(int size = MIN_SIZE; size <= MAX_SIZE; size++){
+                benchPutMark(boardType, size);
+                for(int streak = MIN_STREAK; streak <= Math.min(MAX_STREAK, size); streak++){
+                    benchCheckWin(boardType, size, streak);
+                }
+            }
+        }
+        for(int size : GAME_SIZES){
+            int streak = Math.min(size, MAX_STREAK - 1);
+            for(String playerType : PLAYER_TYPES){
+                benchPlayTurn(playerType, size, streak);
+                benchGame(playerType, size, streak);
+            }
+        }
+        for(String boardType : BOARD_TYPES){
+            for(int size : GAME_SIZES){
+                benchRounds(boardType, size, Math.min(size, MAX_STREAK - 1), false);
+                benchRounds(boardType, size, Math.min(size, MAX_STREAK - 1), true);
+                benchParallelRounds(boardType, size, Math.min(size, MAX_STREAK - 1));
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Measures the win check of the last move on half-filled boards.
+     *
+     * @param boardType The board type
+     * @param size The board size
+     * @param streak The win streak
+     */
+    private void benchCheckWin(String boardType, int size, int streak){
+        SplittableRandom rand = new SplittableRandom(SEED);
+        Board[] boards = new Board[OPS_PER_ROUND];
+        Mark[] marks = new Mark[OPS_PER_ROUND];
+        for(int i = 0; i < boards.length; i++){
+            boards[i] = randomBoard(boardType, size, size * size / 2, rand);
+            marks[i] = boards[i].getMark(boards[i].getLastRow(), boards[i].getLastCol());
+        }
+        double[] result = measure(() -> {
+            long wins = 0;
+            for(int i = 0; i < boards.length; i++){
+                wins += boards[i].isWinningMove(marks[i], streak) ? 1 : 0;
+            }
+            sink += wins;
+        }, OPS_PER_ROUND);
+        record("checkWin", boardType, size, streak, NONE, OPS_PER_ROUND, result);
+    }
+
+    /**
+     * Measures filling a whole board with putMark in a random order.
+     *
+     * @param boardType The board type
+     * @param size The board size
+     */
+    private void benchPutMark(String boardType, int size){
+        int cells = size * size;
+        int boardsPerRound = Math.max(1, OPS_PER_ROUND / cells);
+        int[] order = shuffledCells(cells, new SplittableRandom(SEED));
+        Board[][] boards = new Board[WARMUP_ROUNDS + MEASURE_ROUNDS][boardsPerRound];
+        for(Board[] round : boards){
+            for(int i = 0; i < round.length; i++){
+                round[i] = boardFactory.buildBoard(boardType, size);
+            }
+        }
+        int[] round = {0};
+        double[] result = measure(() -> {
+            for(Board board : boards[round[0]++]){
+                for(int i = 0; i < cells; i++){
+                    board.putMark(i % 2 == 0 ? Mark.X : Mark.O, order[i] / size, order[i] % size);
+                }
+            }
+        }, boardsPerRound * cells);
+        record("putMark", boardType, size, 0, NONE, boardsPerRound * cells, result);
+    }
+
+    /**
+     * Measures a single playTurn of a player on positions of a random game.
+     *
+     * @param playerType The player type
+     * @param size The board size
+     * @param streak The win streak
+     */
+    private void benchPlayTurn(String playerType, int size, int streak){
+        SplittableRandom rand = new SplittableRandom(SEED);
+        Player player = playerFactory.buildPlayer(playerType, streak);
+        int positions = Math.max(1, OPS_PER_ROUND / (size * size));
+        long total = 0;
+        double allocated = 0;
+        for(int r = 0; r < WARMUP_ROUNDS + MEASURE_ROUNDS; r++){
+            Board[] boards = new Board[positions];
+            for(int i = 0; i < positions; i++){
+                boards[i] = randomBoard(BOARD_TYPES[0], size, rand.nextInt(size * size), rand);
+            }
+            long startBytes = allocatedBytes(false);
+            long start = System.nanoTime();
+            for(Board board : boards){
+                player.playTurn(board, Mark.X);
+            }
+            if(r >= WARMUP_ROUNDS){
+                total += System.nanoTime() - start;
+                allocated += bytesSince(startBytes, false);
+            }
+        }
+        double operations = MEASURE_ROUNDS * (double) positions;
+        record("playTurn", BOARD_TYPES[0], size, streak, playerType, positions,
+                new double[]{total / operations, allocated / operations});
+    }
+
+    /**
+     * Measures full games of a player against itself with a VoidRenderer.
+     *
+     * @param playerType The player type
+     * @param size The board size
+     * @param streak The win streak
+     */
+    private void benchGame(String playerType, int size, int streak){
+        Player playerX = playerFactory.buildPlayer(playerType, streak);
+        Player playerO = playerFactory.buildPlayer(playerType, streak);
+        Renderer renderer = new VoidRenderer();
+        double[] result = measure(() -> {
+            for(int i = 0; i < GAMES_PER_ROUND; i++){
+                sink += new Game(playerX, playerO, size, streak, renderer).run().ordinal();
+            }
+        }, GAMES_PER_ROUND);
+        record("gameRun", BOARD_TYPES[0], size, streak, playerType, GAMES_PER_ROUND, result);
+    }
+
+    /**
+     * Measures tournament rounds of cheap players, either building a new game
+     * and board for every round or resetting a single game in place, so the
+     * allocation rate of the round lifecycle itself can be compared.
+     *
+     * @param boardType The board type
+     * @param size The board size
+     * @param streak The win streak
+     * @param reuse true to reset one game, false to build a new one per round
+     */
+    private void benchRounds(String boardType, int size, int streak, boolean reuse){
+        Player[] players = {playerFactory.buildPlayer(ROUND_PLAYER, streak),
+                playerFactory.buildPlayer(ROUND_PLAYER, streak)};
+        Renderer renderer = new VoidRenderer();
+        Game game = new Game(players[0], players[1], boardFactory.buildBoard(boardType, size), streak, renderer);
+        double[] result = measure(() -> {
+            for(int i = 0; i < GAMES_PER_ROUND; i++){
+                if(reuse){
+                    sink += Tournament.playRound(players, game, i, null);
+                } else {
+                    sink += new Game(players[i % 2], players[(i + 1) % 2], boardFactory.buildBoard(boardType, size),
+                            streak, renderer).run().ordinal();
+                }
+            }
+        }, GAMES_PER_ROUND);
+        record(reuse ? "roundReuse" : "roundFresh", boardType, size, streak, ROUND_PLAYER, GAMES_PER_ROUND, result);
+    }
+
+    /**
+     * Measures the rounds of a parallel tournament of cheap players on a pool
+     * with one worker per processor. The same tournament is played in every
+     * measured round, so the workers reuse their players and games, and the
+     * allocations of all threads are counted.
+     *
+     * @param boardType The board type
+     * @param size The board size
+     * @param streak The win streak
+     */
+    private void benchParallelRounds(String boardType, int size, int streak){
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            ParallelTournament tournament = new ParallelTournament(PARALLEL_ROUNDS, pool, ROUND_PLAYER,
+                    ROUND_PLAYER, boardType, SEED);
+            double[] result = measure(() -> sink += tournament.play(size, streak)[0], PARALLEL_ROUNDS, true);
+            record("roundParallel", boardType, size, streak, ROUND_PLAYER, PARALLEL_ROUNDS, result);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs the warmup rounds and the measured rounds of a benchmark on the
+     * benchmark thread.
+     *
+     * @param round One round of the benchmark
+     * @param operations Number of operations in a round
+     * @return Mean nanoseconds and mean allocated bytes per operation over the measured rounds
+     */
+    private double[] measure(Runnable round, int operations){
+        return measure(round, operations, false);
+    }
+
+    /**
+     * Runs the warmup rounds and the measured rounds of a benchmark.
+     *
+     * @param round One round of the benchmark
+     * @param operations Number of operations in a round
+     * @param allThreads true to count the allocations of all threads, false for the benchmark thread only
+     * @return Mean nanoseconds and mean allocated bytes per operation over the measured rounds,
+     *         with NaN bytes if allocations are not counted
+     */
+    private double[] measure(Runnable round, int operations, boolean allThreads){
+        for(int i = 0; i < WARMUP_ROUNDS; i++){
+            round.run();
+        }
+        long startBytes = allocatedBytes(allThreads);
+        long start = System.nanoTime();
+        for(int i = 0; i < MEASURE_ROUNDS; i++){
+            round.run();
+        }
+        double elapsed = System.nanoTime() - start;
+        double allocated = bytesSince(startBytes, allThreads);
+        double total = MEASURE_ROUNDS * (double) operations;
+        return new double[]{elapsed / total, allocated / total};
+    }
+
+    /**
+     * Returns the number of bytes allocated so far by the benchmark thread, or
+     * by all live threads.
+     *
+     * @param allThreads true to sum over all live threads
+     * @return Allocated bytes, or -1 if the JVM does not count them
+     */
+    private static long allocatedBytes(boolean allThreads){
+        if(!(THREADS instanceof com.sun.management.ThreadMXBean counter)
+                || !counter.isThreadAllocatedMemorySupported() || !counter.isThreadAllocatedMemoryEnabled()){
+            return UNKNOWN_BYTES;
+        }
+        if(!allThreads){
+            return counter.getCurrentThreadAllocatedBytes();
+        }
+        long total = 0;
+        for(long bytes : counter.getThreadAllocatedBytes(counter.getAllThreadIds())){
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of bytes allocated since an earlier count.
+     *
+     * @param startBytes The earlier count, as returned by {@link #allocatedBytes}
+     * @param allThreads true to sum over all live threads
+     * @return Allocated bytes, or NaN if the JVM does not count them
+     */
+    private static double bytesSince(long startBytes, boolean allThreads){
+        long endBytes = allocatedBytes(allThreads);
+        return startBytes == UNKNOWN_BYTES || endBytes == UNKNOWN_BYTES ? Double.NaN : endBytes - startBytes;
+    }
+
+    /**
+     * Builds a board with the given number of random marks, X and O alternating.
+     *
+     * @param boardType The board type
+     * @param size The board size
+     * @param marks Number of marks to place
+     * @param rand Random number generator
+     * @return The board
+     */
+    private Board randomBoard(String boardType, int size, int marks, SplittableRandom rand){
+        Board board = boardFactory.buildBoard(boardType, size);
+        int[] order = shuffledCells(size * size, rand);
+        for(int i = 0; i < marks; i++){
+            board.putMark(i % 2 == 0 ? Mark.X : Mark.O, order[i] / size, order[i] % size);
+        }
+        return board;
+    }
+
+    /**
+     * Returns the cell indices of a board in a random order.
+     *
+     * @param cells Number of cells
+     * @param rand Random number generator
+     * @return A random permutation of 0..cells-1
+     */
+    private static int[] shuffledCells(int cells, SplittableRandom rand){
+        int[] order = new int[cells];
+        for(int i = 0; i < cells; i++){
+            int j = rand.nextInt(i + 1);
+            order[i] = order[j];
+            order[j] = i;
+        }
+        return order;
+    }
+
+    /**
+     * Prints one CSV record.
+     *
+     * @param benchmark The benchmark name
+     * @param boardType The board type
+     * @param size The board size
+     * @param streak The win streak, or 0 if not relevant
+     * @param player The player type, or "-" if not relevant
+     * @param operations Number of operations in a measured round
+     * @param result Mean nanoseconds and mean allocated bytes per operation, NaN bytes if not counted
+     */
+    private void record(String benchmark, String boardType, int size, int streak, String player,
+                        int operations, double[] result){
+        String bytes = Double.isNaN(result[BYTES]) ? UNKNOWN : String.format(Locale.ROOT, BYTES_FORMAT, result[BYTES]);
+        out.println(String.format(Locale.ROOT, RECORD_FORMAT, benchmark, boardType, size, streak, player, operations,
+                result[NANOS], bytes));
+    }
+
+    /**
+     * Main entry point for running the benchmarks.
+     * Expected arguments:
+     * args[0] - Output file for the CSV records (optional, prints to the console if absent)
+     *
+     * @param args Command line arguments as described above
+     * @throws FileNotFoundException if the output file cannot be created
+     */
+    public static void main(String[] args) throws FileNotFoundException {
+        PrintStream out = args.length > 0 ? new PrintStream(args[0]) : System.out;
+        new EngineBenchmark(out).runAll();
+        if(out != System.out){
+            out.close();
+        }
+        System.err.println(SINK_MESSAGE + sink);
+    }
+}
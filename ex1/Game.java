@@ -9,6 +9,8 @@
  * - Supports different player implementations
  * - Flexible rendering system
  * - Win detection for rows, columns, and diagonals
+ * - Reusable across rounds through {@link #reset}
+ * - Optional soft per-move time budget for {@link AnytimePlayer}s
  *
  * @author Amit Moses
  */
@@ -24,14 +26,15 @@ public class Game {
     private static final int NUM_PLAYERS = 2;
 
     /**
-     * jumps to next cell
+     * Time a move may take beyond its deadline before it counts as an overrun,
+     * in nanoseconds.
      */
-    private static final int POSITIVE_JUMP = 1;
+    private static final long OVERRUN_GRACE_NANOS = 1_000_000;
 
     /**
-     * jumps to previous cell
+     * Message of the error thrown when a player chooses a cell that is not free.
      */
-    private static final int NEGATIVE_JUMP = -1;
+    private static final String ERROR_MOVE = "Player chose a cell that is not free: ";
 
     /**
      * Number of marks in a row needed to win.
@@ -53,6 +56,21 @@ public class Game {
      */
     private Board board;
 
+    /**
+     * Log the moves are recorded to, or null if the game is not recorded.
+     */
+    private MoveLog moveLog;
+
+    /**
+     * Time budget for a single move in nanoseconds, or 0 for no budget.
+     */
+    private long moveBudgetNanos;
+
+    /**
+     * Number of moves that took longer than the time budget.
+     */
+    private int overruns;
+
     /**
      * Initializes a new game with the specified players and renderer.
      * Uses the default board size and winning streak length.
@@ -85,6 +103,70 @@ public class Game {
         this.renderer = renderer;
     }
 
+    /**
+     * Initializes a new game on a given board, so any board representation
+     * (for example a {@link BitBoard}) can be used by the same players.
+     *
+     * @param playerX The player using the X mark
+     * @param playerO The player using the O mark
+     * @param board The empty board to play on
+     * @param winStreak The number of marks in a row needed to win
+     * @param renderer The renderer to display the game board
+     */
+    public Game(Player playerX, Player playerO, Board board, int winStreak, Renderer renderer) {
+        this.board = board;
+        this.streak = winStreak;
+        this.players = new Player[]{playerX, playerO};
+        this.renderer = renderer;
+    }
+
+    /**
+     * Prepares the game for another round on the same board, which is cleared
+     * in place. A tournament worker can so play all of its rounds with a
+     * single game and board, allocating nothing per round.
+     *
+     * @param playerX The player using the X mark
+     * @param playerO The player using the O mark
+     */
+    public void reset(Player playerX, Player playerO) {
+        this.board.reset();
+        this.players[0] = playerX;
+        this.players[1] = playerO;
+    }
+
+    /**
+     * Records every move of the game, and its result, to a move log.
+     *
+     * @param moveLog The log to record to, or null to stop recording
+     */
+    public void setMoveLog(MoveLog moveLog) {
+        this.moveLog = moveLog;
+    }
+
+    /**
+     * Gives every move a soft time budget. {@link AnytimePlayer}s are asked
+     * for their move with a deadline and return their best move so far when
+     * they notice it expired; other players are played as usual. The budget
+     * is not a hard limit: a search only polls the deadline, and pauses of
+     * the JVM (mostly compilation while it warms up) can delay a move past
+     * it. Moves that return late are counted by {@link #getOverruns}.
+     *
+     * @param budgetMillis Time budget for a single move in milliseconds, or 0 for no budget
+     */
+    public void setMoveBudget(long budgetMillis) {
+        this.moveBudgetNanos = budgetMillis * 1_000_000L;
+    }
+
+    /**
+     * Gets the number of moves that took longer than the time budget, over
+     * all rounds played with this game.
+     *
+     * @return Number of late moves
+     */
+    public int getOverruns() {
+        return this.overruns;
+    }
+
     /**
      * Gets the required streak to win.
      *
@@ -106,104 +188,75 @@ public class Game {
     /**
      * Runs the game until completion.
      * Alternates between players until someone wins or the board is full.
+     * Works on square, rectangular and sparse boards alike, since the game
+     * ends when the board runs out of free cells and wins are checked locally.
      *
      * @return The winning mark (X or O) or BLANK for a tie
      */
     public Mark run() {
-        for(int i = 0; i < board.getSize() * board.getSize() ; i++){
+        for(int i = 0; board.getFreeCount() > 0; i++){
             Mark current = i % NUM_PLAYERS == 0 ? Mark.X : Mark.O;
-            players[i % NUM_PLAYERS].playTurn(board, current);
+            playTurn(players[i % NUM_PLAYERS], current);
             renderer.renderBoard(board);
+            if(moveLog != null){
+                moveLog.addMove(board.getLastRow(), board.getLastCol());
+            }
             if(checkWin(current)){
-                return current;
+                return endGame(current);
             }
         }
-        return Mark.BLANK;
+        return endGame(Mark.BLANK);
     }
 
 
     /**
-     * Checks if the current mark has won the game.
+     * Plays a single turn, within the time budget if there is one.
      *
-     * @param mark Mark to check for win
-     * @return true if mark has won, false otherwise
+     * @param player The player to move
+     * @param mark The player's mark
+     * @throws IllegalStateException if an AnytimePlayer chooses a cell that is not free
      */
-    private boolean checkWin(Mark mark) {
-        for(int i = 0; i < board.getSize(); i++){
-            if(checkLine(mark, i, true) ||
-               checkLine(mark, i, false) ||
-
-               checkDiagonal(mark, 0, i, POSITIVE_JUMP, POSITIVE_JUMP) ||
-               checkDiagonal(mark, i, 0, NEGATIVE_JUMP, POSITIVE_JUMP) ||
-               checkDiagonal(mark, i, getBoardSize() - 1, POSITIVE_JUMP, NEGATIVE_JUMP) ||
-               checkDiagonal(mark, getBoardSize() - 1, i , NEGATIVE_JUMP, NEGATIVE_JUMP)) {
-                return true;
-            }
+    private void playTurn(Player player, Mark mark) {
+        if(moveBudgetNanos == 0){
+            player.playTurn(board, mark);
+            return;
         }
-        return false;
-    }
-
-    /**
-     * Checks a line (row or column) for a winning streak.
-     *
-     * @param mark Mark to check
-     * @param index Row/column index
-     * @param isRow true to check row, false to check column
-     * @return true if winning streak found, false otherwise
-     */
-    private boolean checkLine(Mark mark, int index, boolean isRow) {
-        int current = 0;
-        for (int i = 0; i < board.getSize(); i++) {
-            int row = isRow ? index : i;
-            int col = isRow ? i : index;
-            if (isValidCord(board, row, col) && board.getMark(row, col) == mark) {
-                current++;
-                if (current == streak) {
-                    return true;
-                }
-            } else {
-                current = 0;
+        Deadline deadline = new Deadline(moveBudgetNanos);
+        if(player instanceof AnytimePlayer anytime){
+            int move = anytime.chooseMove(board, mark, deadline);
+            if(!board.putMark(mark, move / board.getCols(), move % board.getCols())){
+                throw new IllegalStateException(ERROR_MOVE + move);
             }
+        } else {
+            player.playTurn(board, mark);
+        }
+        if(deadline.overrunNanos() > OVERRUN_GRACE_NANOS){
+            overruns++;
         }
-        return false;
     }
 
     /**
-     * Checks a diagonal for a winning streak.
+     * Checks if the current mark has won the game.
+     * Only the lines through the last placed mark are inspected, since the
+     * game would have ended already if a streak existed before that move.
      *
-     * @param mark Mark to check
-     * @param startX Starting position x
-     * @param startY Starting position y
-     * @param addToX Direction modifier for x
-     * @param addToY Direction modifier for y
-     * @return true if winning streak found, false otherwise
-     */
-    private boolean checkDiagonal(Mark mark, int startX, int startY, int addToX, int addToY) {
-        int current = 0;
-        while(isValidCord(board, startX, startY)){
-            if(this.board.getMark(startX, startY) == mark){
-                current++;
-                if (current == streak) {
-                    return true;
-                }
-            } else {
-                current = 0;
-            }
-            startX += addToX;
-            startY += addToY;
-        }
-        return false;
+     * @param mark Mark to check for win
+     * @return true if mark has won, false otherwise
+     */
+    private boolean checkWin(Mark mark) {
+        return board.isWinningMove(mark, streak);
     }
 
     /**
-     * Validates if the given coordinates are within the board boundaries.
+     * Records the result of the game to the move log, if there is one.
      *
-     * @param board The game board
-     * @param row Row coordinate to validate
-     * @param col Column coordinate to validate
-     * @return true if coordinates are valid, false otherwise
+     * @param winner The winning mark, or BLANK for a tie
+     * @return The winning mark, or BLANK for a tie
      */
-    private boolean isValidCord(Board board, int row, int col) {
-        return 0 <= row && row < board.getSize() && 0 <= col && col < board.getSize();
+    private Mark endGame(Mark winner) {
+        if(moveLog != null){
+            moveLog.setWinner(winner);
+        }
+        return winner;
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -66,6 +66,6 @@ public class HumanPlayer implements Player {
      * @return true if coordinates are valid, false otherwise
      */
     private boolean isValidCord(Board board, int row, int col) {
-        return 0 <= row && row < board.getSize() && 0 <= col && col < board.getSize();
+        return 0 <= row && row < board.getRows() && 0 <= col && col < board.getCols();
     }
 }
\ No newline at end of file
@@ -0,0 +1,116 @@
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A player decorator that measures how long every move of the wrapped player
+ * takes. Latencies are recorded into one {@link LatencyHistogram} per board
+ * size, so a player that plays several configurations keeps them apart.
+ *
+ * Reseeding is forwarded to the wrapped player, so an instrumented player
+ * plays exactly the same moves as the player it wraps. A wrapped
+ * {@link AnytimePlayer} stays one when it is wrapped with {@link #wrap}.
+ *
+ * @author Amit Moses
+ */
+public class InstrumentedPlayer implements Player, Seedable {
+    private Player player;                                      // The wrapped player
+    private Map<Integer, LatencyHistogram> histograms = new TreeMap<>(); // Latencies by board size
+
+    /**
+     * Wraps a player.
+     *
+     * @param player The player to measure
+     */
+    public InstrumentedPlayer(Player player){
+        this.player = player;
+    }
+
+    /**
+     * Wraps a player, keeping the player's time-budgeted moves if it is an
+     * {@link AnytimePlayer}.
+     *
+     * @param player The player to measure
+     * @return The instrumented player
+     */
+    public static InstrumentedPlayer wrap(Player player){
+        return player instanceof AnytimePlayer ? new InstrumentedAnytimePlayer(player) : new InstrumentedPlayer(player);
+    }
+
+    /**
+     * Restarts the random number generator of the wrapped player, if it has one.
+     *
+     * @param seed The seed
+     */
+    @Override
+    public void setSeed(long seed){
+        if(this.player instanceof Seedable seedable){
+            seedable.setSeed(seed);
+        }
+    }
+
+    /**
+     * Plays the wrapped player's turn and records its latency.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     */
+    @Override
+    public void playTurn(Board board, Mark mark){
+        long start = System.nanoTime();
+        this.player.playTurn(board, mark);
+        record(board, System.nanoTime() - start);
+    }
+
+    /**
+     * Records the latency of a move.
+     *
+     * @param board The game board
+     * @param elapsed Latency of the move in nanoseconds
+     */
+    void record(Board board, long elapsed){
+        this.histograms.computeIfAbsent(board.getSize(), size -> new LatencyHistogram()).record(elapsed);
+    }
+
+    /**
+     * Returns the recorded latencies.
+     *
+     * @return Histogram of move latencies by board size, in ascending size order
+     */
+    public Map<Integer, LatencyHistogram> getHistograms(){
+        return this.histograms;
+    }
+
+    /**
+     * An instrumented {@link AnytimePlayer}, which also measures the moves it
+     * chooses within a deadline.
+     */
+    private static class InstrumentedAnytimePlayer extends InstrumentedPlayer implements AnytimePlayer {
+        private AnytimePlayer anytime;  // The wrapped player
+
+        /**
+         * Wraps an AnytimePlayer.
+         *
+         * @param player The player to measure, which must be an AnytimePlayer
+         */
+        InstrumentedAnytimePlayer(Player player){
+            super(player);
+            this.anytime = (AnytimePlayer) player;
+        }
+
+        /**
+         * Chooses the wrapped player's move and records its latency.
+         *
+         * @param board The game board
+         * @param mark The player's mark (X or O)
+         * @param deadline The deadline of the move
+         * @return The chosen cell
+         */
+        @Override
+        public int chooseMove(Board board, Mark mark, Deadline deadline){
+            long start = System.nanoTime();
+            int move = this.anytime.chooseMove(board, mark, deadline);
+            record(board, System.nanoTime() - start);
+            return move;
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/**
+ * A histogram of latencies in nanoseconds with log-linear buckets, in the
+ * style of HdrHistogram. Values are grouped by their highest set bit, and
+ * every power-of-two range is split into equally wide sub-buckets, so every
+ * recorded value is kept with a relative error below 1% while the whole range
+ * of a long fits in a few thousand counters.
+ *
+ * Recording is a few shifts and an array increment, with no allocation.
+ * A histogram is not thread-safe; histograms recorded on several threads are
+ * combined with {@link #add}.
+ *
+ * @author Amit Moses
+ */
+public class LatencyHistogram {
+    /** Sub-buckets per power of two, as a number of bits (128 sub-buckets) */
+    private static final int SUB_BITS = 7;
+
+    /** Number of sub-buckets per power of two */
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+
+    /** Number of buckets covering all non-negative long values */
+    private static final int BUCKETS = (Long.SIZE - SUB_BITS) * SUB_BUCKETS;
+
+    /** Count of recorded values per bucket */
+    private long[] counts = new long[BUCKETS];
+
+    /** Number of recorded values */
+    private long count;
+
+    /** Sum of the recorded values */
+    private long sum;
+
+    /** Smallest recorded value */
+    private long min = Long.MAX_VALUE;
+
+    /** Largest recorded value */
+    private long max;
+
+    /**
+     * Creates an empty histogram.
+     */
+    public LatencyHistogram(){}
+
+    /**
+     * Records a latency.
+     *
+     * @param nanos The latency in nanoseconds (negative values are recorded as 0)
+     */
+    public void record(long nanos){
+        long value = Math.max(0, nanos);
+        this.counts[bucketOf(value)]++;
+        this.count++;
+        this.sum += value;
+        this.min = Math.min(this.min, value);
+        this.max = Math.max(this.max, value);
+    }
+
+    /**
+     * Adds every value recorded in another histogram to this one.
+     *
+     * @param other The histogram to add
+     */
+    public void add(LatencyHistogram other){
+        for(int i = 0; i < BUCKETS; i++){
+            this.counts[i] += other.counts[i];
+        }
+        this.count += other.count;
+        this.sum += other.sum;
+        this.min = Math.min(this.min, other.min);
+        this.max = Math.max(this.max, other.max);
+    }
+
+    /**
+     * Returns the number of recorded values.
+     *
+     * @return Number of values
+     */
+    public long getCount(){
+        return this.count;
+    }
+
+    /**
+     * Returns the mean of the recorded values.
+     *
+     * @return The mean in nanoseconds, or 0 if nothing was recorded
+     */
+    public double getMean(){
+        return this.count == 0 ? 0 : this.sum / (double) this.count;
+    }
+
+    /**
+     * Returns the smallest recorded value.
+     *
+     * @return The minimum in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getMin(){
+        return this.count == 0 ? 0 : this.min;
+    }
+
+    /**
+     * Returns the largest recorded value.
+     *
+     * @return The maximum in nanoseconds
+     */
+    public long getMax(){
+        return this.max;
+    }
+
+    /**
+     * Returns the value below which the given percentage of the recorded
+     * values fall, rounded up to the top of its bucket.
+     *
+     * @param percentile The percentile (0 to 100)
+     * @return The value in nanoseconds, or 0 if nothing was recorded
+     */
+    public long getValueAtPercentile(double percentile){
+        if(this.count == 0){
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * this.count));
+        long seen = 0;
+        for(int i = 0; i < BUCKETS; i++){
+            seen += this.counts[i];
+            if(seen >= rank){
+                return Math.min(this.max, highestValueOf(i));
+            }
+        }
+        return this.max;
+    }
+
+    /**
+     * Computes the bucket of a value. Values below 2 * SUB_BUCKETS get one
+     * bucket each; larger values share a bucket with values of the same
+     * highest bit and the same next SUB_BITS bits.
+     *
+     * @param value A non-negative value
+     * @return The bucket index
+     */
+    private static int bucketOf(long value){
+        int shift = Math.max(0, Long.SIZE - Long.numberOfLeadingZeros(value) - SUB_BITS - 1);
+        return (shift << SUB_BITS) + (int) (value >>> shift);
+    }
+
+    /**
+     * Computes the largest value that falls into a bucket.
+     *
+     * @param bucket The bucket index
+     * @return The largest value of the bucket
+     */
+    private static long highestValueOf(int bucket){
+        if(bucket < 2 * SUB_BUCKETS){
+            return bucket;
+        }
+        int shift = (bucket >>> SUB_BITS) - 1;
+        long low = (long) ((bucket & (SUB_BUCKETS - 1)) + SUB_BUCKETS) << shift;
+        return low + (1L << shift) - 1;
+    }
+}
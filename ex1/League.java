@@ -0,0 +1,448 @@
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A round-robin league between any number of player types over a grid of
+ * board configurations. Every pair of players meets on every (size, streak)
+ * configuration for a fixed number of rounds, alternating the starting player
+ * as in {@link Tournament}.
+ *
+ * Scheduling:
+ * - Every pairing of every configuration is split into chunks of rounds
+ * - All chunks are independent tasks on a single fork-join pool, so long and
+ *   short pairings are balanced across the cores
+ * - Every worker thread builds its players and games once per configuration
+ *   and reuses them for every chunk it plays; players are reseeded per round
+ *   from the league seed, so the results do not depend on the scheduling
+ *
+ * Results are reported per configuration and over all configurations, as wins,
+ * losses, ties, win rate and an Elo rating. The ratings are the maximum
+ * likelihood Bradley-Terry strengths of the pairwise results (ties count as
+ * half a win), scaled to the Elo range with a mean of 1500.
+ *
+ * While the league runs, the number of played rounds and the throughput can
+ * be read from any thread.
+ *
+ * @author Amit Moses
+ */
+public class League {
+    // Constants for scheduling and rating
+    private static final int ROUNDS_PER_TASK = 64;
+    private static final int ELO_ITERATIONS = 200;
+    private static final double ELO_MEAN = 1500;
+    private static final double ELO_SCALE = 400;
+    private static final double PRIOR_GAMES = 1;
+    private static final long REPORT_MILLIS = 1000;
+    private static final String DEFAULT_BOARD = "array";
+    private static final String CONFIG_SEPARATOR = ",";
+    private static final String SIZE_STREAK_SEPARATOR = ":";
+    private static final String PROGRESS_FORMAT = "progress: %5.1f%% (%d/%d rounds, %.0f rounds/s)%n";
+    private static final String CONFIG_HEADER = "######### %dx%d, streak %d #########%n";
+    private static final String OVERALL_HEADER = "######### All configurations #########%n";
+    private static final String TABLE_HEADER = "%-12s %8s %8s %8s %9s %7s%n";
+    private static final String TABLE_ROW = "%-12s %8d %8d %8d %8.1f%% %7.0f%n";
+    private static final String ERROR_PLAYER = "Unknown player type: ";
+
+    // League configuration
+    private String[] playerTypes;   // Types of the players, as accepted by PlayerFactory
+    private int[][] configs;        // Board configurations as {size, streak}
+    private int rounds;             // Rounds played by every pair on every configuration
+    private ForkJoinPool pool;      // Pool the chunks are played on
+    private String boardType;       // Board representation used for every round
+    private long seed;              // League seed the round seeds are derived from
+
+    // League state
+    private int[][][] wins;         // wins[config][i][j]: rounds player i won against player j
+    private int[][][] ties;         // ties[config][i][j]: tied rounds between players i and j
+    private LongAdder roundsPlayed = new LongAdder(); // Rounds finished so far
+    private long startNanos;        // Start time of the running league
+    private ThreadLocal<Worker> workers = ThreadLocal.withInitial(Worker::new); // State of every worker thread
+
+    /**
+     * Creates a new league.
+     *
+     * @param playerTypes Types of the players, as accepted by {@link PlayerFactory#buildPlayer}
+     * @param configs Board configurations, each as {size, streak}
+     * @param rounds Rounds played by every pair on every configuration
+     * @param pool Fork-join pool that plays the rounds
+     * @param boardType Board type as accepted by {@link BoardFactory#buildBoard}
+     * @param seed The league seed
+     */
+    public League(String[] playerTypes, int[][] configs, int rounds, ForkJoinPool pool,
+                  String boardType, long seed){
+        this.playerTypes = playerTypes.clone();
+        this.configs = configs.clone();
+        this.rounds = rounds;
+        this.pool = pool;
+        this.boardType = boardType;
+        this.seed = seed;
+        int n = playerTypes.length;
+        this.wins = new int[configs.length][n][n];
+        this.ties = new int[configs.length][n][n];
+    }
+
+    /**
+     * Plays the whole league, printing a progress line at a fixed interval.
+     *
+     * @param progressOut Stream the progress lines are printed to
+     * @throws InterruptedException if interrupted while waiting for the league
+     */
+    public void play(PrintStream progressOut) throws InterruptedException {
+        this.roundsPlayed.reset();
+        this.startNanos = System.nanoTime();
+        ForkJoinTask<List<int[]>> task = this.pool.submit(new ChunksTask());
+        List<int[]> chunks;
+        while(true){
+            try {
+                chunks = task.get(REPORT_MILLIS, TimeUnit.MILLISECONDS);
+                break;
+            } catch (TimeoutException e) {
+                progressOut.printf(Locale.ROOT, PROGRESS_FORMAT, 100 * getProgress(),
+                        getRoundsPlayed(), getTotalRounds(), getRoundsPerSecond());
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+        for(int[] chunk : chunks){
+            int config = chunk[0];
+            int i = chunk[1];
+            int j = chunk[2];
+            this.wins[config][i][j] += chunk[3];
+            this.wins[config][j][i] += chunk[4];
+            this.ties[config][i][j] += chunk[5];
+            this.ties[config][j][i] += chunk[5];
+        }
+    }
+
+    /**
+     * Returns the number of rounds finished so far.
+     *
+     * @return Played rounds
+     */
+    public long getRoundsPlayed(){
+        return this.roundsPlayed.sum();
+    }
+
+    /**
+     * Returns the number of rounds in the whole league.
+     *
+     * @return Total rounds
+     */
+    public long getTotalRounds(){
+        long n = this.playerTypes.length;
+        return (long) this.configs.length * (n * (n - 1) / 2) * this.rounds;
+    }
+
+    /**
+     * Returns the fraction of the league that was played.
+     *
+     * @return A value between 0 and 1
+     */
+    public double getProgress(){
+        long total = getTotalRounds();
+        return total == 0 ? 1 : getRoundsPlayed() / (double) total;
+    }
+
+    /**
+     * Returns the average throughput since the league started.
+     *
+     * @return Rounds per second
+     */
+    public double getRoundsPerSecond(){
+        double seconds = (System.nanoTime() - this.startNanos) / 1e9;
+        return seconds <= 0 ? 0 : getRoundsPlayed() / seconds;
+    }
+
+    /**
+     * Computes the Elo ratings of the players from the results of the given
+     * configurations.
+     *
+     * @param configIndices Indices of the configurations to rate on
+     * @return Rating of every player
+     */
+    public double[] getRatings(int... configIndices){
+        int n = this.playerTypes.length;
+        double[][] games = new double[n][n];
+        double[] score = new double[n];
+        for(int c : configIndices){
+            for(int i = 0; i < n; i++){
+                for(int j = 0; j < n; j++){
+                    if(i != j){
+                        games[i][j] += this.wins[c][i][j] + this.wins[c][j][i] + this.ties[c][i][j];
+                        score[i] += this.wins[c][i][j] + this.ties[c][i][j] / 2.0;
+                    }
+                }
+            }
+        }
+        // A virtual tie against every opponent keeps unbeaten and winless players finite
+        for(int i = 0; i < n; i++){
+            for(int j = 0; j < n; j++){
+                if(i != j){
+                    games[i][j] += PRIOR_GAMES;
+                    score[i] += PRIOR_GAMES / 2;
+                }
+            }
+        }
+        double[] strength = new double[n];
+        Arrays.fill(strength, 1);
+        for(int iteration = 0; iteration < ELO_ITERATIONS; iteration++){
+            for(int i = 0; i < n; i++){
+                double denominator = 0;
+                for(int j = 0; j < n; j++){
+                    if(i != j){
+                        denominator += games[i][j] / (strength[i] + strength[j]);
+                    }
+                }
+                strength[i] = score[i] / denominator;
+            }
+        }
+        double[] ratings = new double[n];
+        double mean = 0;
+        for(int i = 0; i < n; i++){
+            ratings[i] = ELO_SCALE * Math.log10(strength[i]);
+            mean += ratings[i] / n;
+        }
+        for(int i = 0; i < n; i++){
+            ratings[i] += ELO_MEAN - mean;
+        }
+        return ratings;
+    }
+
+    /**
+     * Displays a table per configuration and a table over all configurations.
+     *
+     * @param out Stream to print the tables to
+     */
+    public void displayResults(PrintStream out){
+        int[] all = new int[this.configs.length];
+        for(int c = 0; c < this.configs.length; c++){
+            all[c] = c;
+            out.printf(CONFIG_HEADER, this.configs[c][0], this.configs[c][0], this.configs[c][1]);
+            displayTable(out, c);
+        }
+        out.printf(OVERALL_HEADER);
+        displayTable(out, all);
+    }
+
+    /**
+     * Displays the results of the given configurations, one row per player.
+     *
+     * @param out Stream to print the table to
+     * @param configIndices Indices of the configurations to sum
+     */
+    private void displayTable(PrintStream out, int... configIndices){
+        double[] ratings = getRatings(configIndices);
+        out.printf(TABLE_HEADER, "player", "wins", "losses", "ties", "win rate", "elo");
+        for(int i = 0; i < this.playerTypes.length; i++){
+            int won = 0;
+            int lost = 0;
+            int tied = 0;
+            for(int c : configIndices){
+                for(int j = 0; j < this.playerTypes.length; j++){
+                    won += this.wins[c][i][j];
+                    lost += this.wins[c][j][i];
+                    tied += this.ties[c][i][j];
+                }
+            }
+            int games = won + lost + tied;
+            out.printf(Locale.ROOT, TABLE_ROW, this.playerTypes[i], won, lost, tied,
+                    games == 0 ? 0 : 100.0 * won / games, ratings[i]);
+        }
+    }
+
+    /**
+     * Root task: forks one chunk task per range of rounds of every pairing of
+     * every configuration, and collects their results.
+     */
+    private class ChunksTask extends RecursiveTask<List<int[]>> {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Forks every chunk and joins them in order.
+         *
+         * @return Results of the chunks, each as {config, i, j, wins i, wins j, ties}
+         */
+        @Override
+        protected List<int[]> compute(){
+            List<ChunkTask> tasks = new ArrayList<>();
+            int pairing = 0;
+            for(int c = 0; c < configs.length; c++){
+                for(int i = 0; i < playerTypes.length; i++){
+                    for(int j = i + 1; j < playerTypes.length; j++){
+                        long pairingSeed = Tournament.seedFor(seed, pairing++);
+                        for(int from = 0; from < rounds; from += ROUNDS_PER_TASK){
+                            tasks.add(new ChunkTask(c, i, j, pairingSeed, from, Math.min(rounds, from + ROUNDS_PER_TASK)));
+                        }
+                    }
+                }
+            }
+            invokeAll(tasks);
+            List<int[]> results = new ArrayList<>(tasks.size());
+            for(ChunkTask task : tasks){
+                results.add(task.join());
+            }
+            return results;
+        }
+    }
+
+    /**
+     * The rounds [from, to) of one pairing on one configuration.
+     */
+    private class ChunkTask extends RecursiveTask<int[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final int config;
+        private final int first;
+        private final int second;
+        private final long pairingSeed;
+        private final int from;
+        private final int to;
+
+        /**
+         * Creates a chunk of a pairing.
+         *
+         * @param config Index of the configuration
+         * @param first Index of the first player
+         * @param second Index of the second player
+         * @param pairingSeed Seed the round seeds of the pairing are derived from
+         * @param from First round of the chunk
+         * @param to Round after the last round of the chunk
+         */
+        ChunkTask(int config, int first, int second, long pairingSeed, int from, int to){
+            this.config = config;
+            this.first = first;
+            this.second = second;
+            this.pairingSeed = pairingSeed;
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * Plays the chunk with the players of the current thread, on its
+         * single game of the configuration that is reset between rounds.
+         *
+         * @return The result as {config, first, second, wins first, wins second, ties}
+         */
+        @Override
+        protected int[] compute(){
+            Worker worker = workers.get();
+            Player[] players = {worker.player(config, first), worker.player(config, second)};
+            Game game = worker.game(config, players);
+            int[] result = {config, first, second, 0, 0, 0};
+            for(int round = from; round < to; round++){
+                Tournament.reseed(players, Tournament.seedFor(pairingSeed, round));
+                int winner = Tournament.playRound(players, game, round, null);
+                result[winner < 0 ? 5 : 3 + winner]++;
+                roundsPlayed.increment();
+            }
+            return result;
+        }
+    }
+
+    /**
+     * The players and games of one worker thread. Every player and game is
+     * built the first time the thread plays a chunk that needs it, and is
+     * reused for every later chunk of the same configuration.
+     */
+    private class Worker {
+        private final Player[][] players = new Player[configs.length][playerTypes.length];
+        private final Game[] games = new Game[configs.length];
+
+        /**
+         * Returns the player of the given type for a configuration.
+         *
+         * @param config Index of the configuration
+         * @param index Index of the player type
+         * @return The player
+         */
+        Player player(int config, int index){
+            if(players[config][index] == null){
+                players[config][index] = new PlayerFactory().buildPlayer(playerTypes[index], configs[config][0],
+                        configs[config][1]);
+            }
+            return players[config][index];
+        }
+
+        /**
+         * Returns the game of a configuration.
+         *
+         * @param config Index of the configuration
+         * @param pairing The two players of the chunk
+         * @return The game, to be reset before every round
+         */
+        Game game(int config, Player[] pairing){
+            if(games[config] == null){
+                games[config] = new Game(pairing[0], pairing[1],
+                        new BoardFactory().buildBoard(boardType, configs[config][0]), configs[config][1],
+                        new VoidRenderer());
+            }
+            return games[config];
+        }
+    }
+
+    /**
+     * Parses configurations of the form "size:streak,size:streak".
+     *
+     * @param text The configurations
+     * @return The configurations as {size, streak}
+     */
+    private static int[][] parseConfigs(String text){
+        String[] parts = text.split(CONFIG_SEPARATOR);
+        int[][] configs = new int[parts.length][];
+        for(int i = 0; i < parts.length; i++){
+            String[] sizeStreak = parts[i].split(SIZE_STREAK_SEPARATOR);
+            configs[i] = new int[]{Integer.parseInt(sizeStreak[0]), Integer.parseInt(sizeStreak[1])};
+        }
+        return configs;
+    }
+
+    /**
+     * Main entry point for running a league.
+     * Expected arguments:
+     * args[0] - Rounds per pairing and configuration
+     * args[1] - Configurations as "size:streak,size:streak,..."
+     * args[2] - Player types as "type,type,..."
+     * args[3] - Board type (optional, defaults to "array")
+     * args[4] - Number of parallel workers (optional, defaults to the available processors)
+     * args[5] - League seed (optional, random if absent)
+     *
+     * @param args Command line arguments as described above
+     * @throws InterruptedException if interrupted while waiting for the league
+     */
+    public static void main(String[] args) throws InterruptedException {
+        int rounds = Integer.parseInt(args[0]);
+        int[][] configs = parseConfigs(args[1]);
+        String[] playerTypes = args[2].split(CONFIG_SEPARATOR);
+        String boardType = args.length > 3 ? args[3] : DEFAULT_BOARD;
+        int workers = args.length > 4 ? Integer.parseInt(args[4]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : System.nanoTime();
+
+        PlayerFactory playerFactory = new PlayerFactory();
+        for(String type : playerTypes){
+            for(int[] config : configs){
+                if(playerFactory.buildPlayer(type, config[0], config[1]) == null){
+                    System.err.println(ERROR_PLAYER + type);
+                    return;
+                }
+            }
+        }
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            League league = new League(playerTypes, configs, rounds, pool, boardType, seed);
+            league.play(System.err);
+            league.displayResults(System.out);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
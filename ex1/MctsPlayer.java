@@ -0,0 +1,470 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Implements a Monte Carlo Tree Search player for big boards, where full-width
+ * search is hopeless.
+ *
+ * Strategy details:
+ * 1. Grows a game tree from the current position, choosing children by UCT
+ * 2. Scores every new leaf by a random playout, like WhateverPlayer but on a
+ *    private board copy that is reused between playouts (no allocation)
+ * 3. Several workers share the same tree; visit and win counters are atomic,
+ *    and a visit is counted before its playout so workers spread out
+ * 4. Plays the most visited move once the playout budget is used up
+ *
+ * The workers run on a pool that is shared by all players (one thread per
+ * processor) unless a pool is given, so tournaments with many MctsPlayers
+ * never create more threads than the machine has cores.
+ *
+ * @author Amit Moses
+ */
+public class MctsPlayer implements Player, Seedable {
+    /** Default number of playouts per move */
+    private static final int DEFAULT_PLAYOUTS = 20_000;
+
+    /** A leaf is expanded once it has been visited more than this many times */
+    private static final int EXPAND_VISITS = 1;
+
+    /** Exploration constant of UCT */
+    private static final double EXPLORATION = 1.4;
+
+    // Playout score of a node, counted for the player who made its move
+    private static final int WIN_POINTS = 2;
+    private static final int DRAW_POINTS = 1;
+
+    /** Row and column steps of the four line directions */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /** Message of the error thrown for rectangular boards */
+    private static final String ERROR_SQUARE = "MctsPlayer requires a square board";
+
+    /** Pool shared by all players that are not given their own */
+    private static final ForkJoinPool SHARED_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    /** Number of marks in a row needed to win */
+    private int streak;
+
+    /** Number of playouts per move */
+    private int playouts;
+
+    /** Pool the workers run on */
+    private ForkJoinPool pool;
+
+    /** Number of workers sharing the tree */
+    private int workers;
+
+    /** Random number generator the workers' generators are split from */
+    private SplittableRandom rand = new SplittableRandom();
+
+    /**
+     * Creates a new MctsPlayer with the default playout budget, using one
+     * worker per available processor.
+     *
+     * @param streak Number of marks in a row needed to win
+     */
+    public MctsPlayer(int streak){
+        this(streak, DEFAULT_PLAYOUTS, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a new MctsPlayer whose workers run on the shared pool.
+     *
+     * @param streak Number of marks in a row needed to win
+     * @param playouts Number of playouts per move
+     * @param workers Number of workers sharing the tree
+     */
+    public MctsPlayer(int streak, int playouts, int workers){
+        this(streak, playouts, workers, SHARED_POOL);
+    }
+
+    /**
+     * Creates a new MctsPlayer whose workers run on the given pool. The pool
+     * is owned by the caller, who shuts it down when it is no longer used.
+     *
+     * @param streak Number of marks in a row needed to win
+     * @param playouts Number of playouts per move
+     * @param workers Number of workers sharing the tree
+     * @param pool Pool the workers run on
+     */
+    public MctsPlayer(int streak, int playouts, int workers, ForkJoinPool pool){
+        this.streak = streak;
+        this.playouts = playouts;
+        this.workers = workers;
+        this.pool = pool;
+    }
+
+    /**
+     * Restarts the random number generator the workers' generators are split
+     * from. With more than one worker the playouts still depend on scheduling.
+     *
+     * @param seed The seed
+     */
+    @Override
+    public void setSeed(long seed){
+        this.rand = new SplittableRandom(seed);
+    }
+
+    /**
+     * Executes the player's turn by running the playouts and placing the most
+     * visited move.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     * @throws IllegalArgumentException if the board is not square
+     */
+    public void playTurn(Board board, Mark mark) {
+        if(board.getRows() != board.getCols()){
+            throw new IllegalArgumentException(ERROR_SQUARE);
+        }
+        int size = board.getSize();
+        Mark[] rootCells = new Mark[size * size];
+        for(int i = 0; i < rootCells.length; i++){
+            rootCells[i] = board.getMark(i / size, i % size);
+        }
+        Node root = new Node(-1, mark == Mark.X ? Mark.O : Mark.X, false, Mark.BLANK);
+        AtomicInteger remaining = new AtomicInteger(playouts);
+
+        List<Future<?>> tasks = new ArrayList<>();
+        for(int i = 0; i < workers; i++){
+            Worker worker = new Worker(size, rootCells, rand.split());
+            tasks.add(pool.submit(() -> worker.run(root, remaining)));
+        }
+        for(Future<?> task : tasks){
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        int move = bestMove(root, rootCells);
+        board.putMark(mark, move / size, move % size);
+    }
+
+    /**
+     * Returns the most visited move of the root, or the first blank cell if the
+     * root was never expanded.
+     *
+     * @param root The root of the tree
+     * @param rootCells The cells of the current position
+     * @return The cell index of the chosen move
+     */
+    private int bestMove(Node root, Mark[] rootCells) {
+        Node[] children = root.children.get();
+        if(children != null){
+            Node best = children[0];
+            for(Node child : children){
+                if(child.visits.get() > best.visits.get()){
+                    best = child;
+                }
+            }
+            return best.move;
+        }
+        for(int i = 0; i < rootCells.length; i++){
+            if(rootCells[i] == Mark.BLANK){
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A node of the shared tree. The counters are updated lock-free, and the
+     * children are published once with a compare-and-set.
+     */
+    private static final class Node {
+        private final int move;
+        private final Mark mover;
+        private final boolean terminal;
+        private final Mark winner;
+        private final AtomicInteger visits = new AtomicInteger();
+        private final AtomicInteger points = new AtomicInteger();
+        private final AtomicReference<Node[]> children = new AtomicReference<>();
+
+        /**
+         * Creates a node.
+         *
+         * @param move Cell index of the move leading to the node
+         * @param mover The mark that made the move
+         * @param terminal true if the game ends with the move
+         * @param winner The winner if the game ended, BLANK for a tie
+         */
+        Node(int move, Mark mover, boolean terminal, Mark winner){
+            this.move = move;
+            this.mover = mover;
+            this.terminal = terminal;
+            this.winner = winner;
+        }
+    }
+
+    /**
+     * A worker that runs playouts on its own board copy until the shared
+     * budget is used up. All the arrays are allocated once per move.
+     */
+    private final class Worker {
+        private final int size;
+        private final Mark[] rootCells;
+        private final Mark[] cells;
+        private final int[] free;
+        private final int[] freeIndex;
+        private final Node[] path;
+        private final SplittableRandom rand;
+        private int freeCount;
+
+        /**
+         * Creates a worker for the given position.
+         *
+         * @param size Size of the board
+         * @param rootCells The cells of the current position
+         * @param rand The worker's own random number generator
+         */
+        Worker(int size, Mark[] rootCells, SplittableRandom rand){
+            this.size = size;
+            this.rootCells = rootCells;
+            this.cells = new Mark[rootCells.length];
+            this.free = new int[rootCells.length];
+            this.freeIndex = new int[rootCells.length];
+            this.path = new Node[rootCells.length + 1];
+            this.rand = rand;
+        }
+
+        /**
+         * Runs playouts until the budget is used up.
+         *
+         * @param root The root of the shared tree
+         * @param remaining Number of playouts left for all workers
+         */
+        void run(Node root, AtomicInteger remaining) {
+            while(remaining.getAndDecrement() > 0){
+                playOnce(root);
+            }
+        }
+
+        /**
+         * Selects a path down the tree, expands its leaf, runs a random playout
+         * and adds the result to every node on the path.
+         *
+         * @param root The root of the shared tree
+         */
+        private void playOnce(Node root) {
+            reset();
+            Node node = root;
+            int depth = 0;
+            path[depth++] = node;
+            node.visits.incrementAndGet();
+            while(!node.terminal){
+                Node[] children = node.children.get();
+                if(children == null){
+                    if(node.visits.get() <= EXPAND_VISITS){
+                        break;
+                    }
+                    children = expand(node);
+                }
+                node = select(children, node.visits.get());
+                place(node.move, node.mover);
+                node.visits.incrementAndGet();
+                path[depth++] = node;
+            }
+
+            Mark winner = node.terminal ? node.winner : playout(opponent(node.mover));
+            for(int i = 0; i < depth; i++){
+                if(winner == Mark.BLANK){
+                    path[i].points.addAndGet(DRAW_POINTS);
+                } else if(winner == path[i].mover){
+                    path[i].points.addAndGet(WIN_POINTS);
+                }
+            }
+        }
+
+        /**
+         * Creates the children of a node from the worker's current position and
+         * publishes them, or returns the children another worker published first.
+         *
+         * @param node The node to expand
+         * @return The children of the node
+         */
+        private Node[] expand(Node node) {
+            Mark toMove = opponent(node.mover);
+            int count = 0;
+            for(int i = 0; i < freeCount; i++){
+                if(hasNeighbour(free[i])){
+                    count++;
+                }
+            }
+            boolean all = count == 0;
+            Node[] children = new Node[all ? freeCount : count];
+            int next = 0;
+            for(int i = 0; i < freeCount; i++){
+                int cell = free[i];
+                if(!all && !hasNeighbour(cell)){
+                    continue;
+                }
+                cells[cell] = toMove;
+                boolean win = isWin(cell, toMove);
+                cells[cell] = Mark.BLANK;
+                children[next++] = new Node(cell, toMove, win || freeCount == 1, win ? toMove : Mark.BLANK);
+            }
+            return node.children.compareAndSet(null, children) ? children : node.children.get();
+        }
+
+        /**
+         * Chooses the child with the best UCT value. Unvisited children come first.
+         *
+         * @param children The children to choose from
+         * @param parentVisits Number of visits of the parent
+         * @return The chosen child
+         */
+        private Node select(Node[] children, int parentVisits) {
+            double logVisits = Math.log(Math.max(parentVisits, 1));
+            Node best = children[0];
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for(Node child : children){
+                int visits = child.visits.get();
+                if(visits == 0){
+                    return child;
+                }
+                double value = child.points.get() / (double) (WIN_POINTS * visits) +
+                        EXPLORATION * Math.sqrt(logVisits / visits);
+                if(value > bestValue){
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Plays random moves until the game ends.
+         *
+         * @param toMove The mark to move first
+         * @return The winning mark, or BLANK for a tie
+         */
+        private Mark playout(Mark toMove) {
+            while(freeCount > 0){
+                int cell = free[rand.nextInt(freeCount)];
+                place(cell, toMove);
+                if(isWin(cell, toMove)){
+                    return toMove;
+                }
+                toMove = opponent(toMove);
+            }
+            return Mark.BLANK;
+        }
+
+        /**
+         * Copies the current position into the worker's board and free-cell list.
+         */
+        private void reset() {
+            System.arraycopy(rootCells, 0, cells, 0, cells.length);
+            freeCount = 0;
+            for(int i = 0; i < cells.length; i++){
+                if(cells[i] == Mark.BLANK){
+                    freeIndex[i] = freeCount;
+                    free[freeCount++] = i;
+                }
+            }
+        }
+
+        /**
+         * Places a mark and removes its cell from the free-cell list by swapping
+         * the last free cell into its slot.
+         *
+         * @param cell The cell index
+         * @param mark The mark to place
+         */
+        private void place(int cell, Mark mark) {
+            cells[cell] = mark;
+            int slot = freeIndex[cell];
+            int last = free[--freeCount];
+            free[slot] = last;
+            freeIndex[last] = slot;
+        }
+
+        /**
+         * Checks if the mark placed on a cell completes a winning streak.
+         *
+         * @param cell The cell index of the placed mark
+         * @param mark The placed mark
+         * @return true if the mark wins
+         */
+        private boolean isWin(int cell, Mark mark) {
+            for(int[] direction : DIRECTIONS){
+                if(run(cell, mark, direction[0], direction[1]) +
+                        run(cell, mark, -direction[0], -direction[1]) + 1 >= streak){
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Counts consecutive marks starting next to a cell in one direction.
+         *
+         * @param cell The cell index
+         * @param mark The mark to count
+         * @param addToRow Direction modifier for the row
+         * @param addToCol Direction modifier for the column
+         * @return Number of consecutive marks
+         */
+        private int run(int cell, Mark mark, int addToRow, int addToCol) {
+            int row = cell / size + addToRow;
+            int col = cell % size + addToCol;
+            int count = 0;
+            while(isValidCord(row, col) && cells[row * size + col] == mark){
+                count++;
+                row += addToRow;
+                col += addToCol;
+            }
+            return count;
+        }
+
+        /**
+         * Checks if a cell has a marked cell among its eight neighbours.
+         *
+         * @param cell The cell index
+         * @return true if a neighbour is marked
+         */
+        private boolean hasNeighbour(int cell) {
+            int row = cell / size;
+            int col = cell % size;
+            for(int r = row - 1; r <= row + 1; r++){
+                for(int c = col - 1; c <= col + 1; c++){
+                    if(isValidCord(r, c) && cells[r * size + c] != Mark.BLANK){
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Validates if the given coordinates are within the board boundaries.
+         *
+         * @param row Row coordinate to validate
+         * @param col Column coordinate to validate
+         * @return true if coordinates are valid, false otherwise
+         */
+        private boolean isValidCord(int row, int col) {
+            return 0 <= row && row < size && 0 <= col && col < size;
+        }
+    }
+
+    /**
+     * Returns the opponent of a mark.
+     *
+     * @param mark The mark (X or O)
+     * @return The other mark
+     */
+    private static Mark opponent(Mark mark) {
+        return mark == Mark.X ? Mark.O : Mark.X;
+    }
+}
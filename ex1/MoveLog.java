@@ -0,0 +1,274 @@
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Records the moves of a single game so the game can be replayed exactly,
+ * without running the players that played it.
+ *
+ * Binary format of a record (a log file is a sequence of records):
+ * - int magic number "TTT2"
+ * - varint rows, varint columns, varint win streak, long round seed
+ * - byte winner (Mark ordinal), varint number of moves
+ * - one varint cell index (row * cols + col, as a long) per move
+ *
+ * Cell indices below 128 take a single byte, so a game on a board of up to
+ * 11x11 costs one byte per move. Records of the older square-only format
+ * ("TTT1", a single varint board size) are still read.
+ *
+ * Games on boards with more cells than an array board can hold are replayed
+ * on a {@link SparseBoard}.
+ *
+ * @author Amit Moses
+ */
+public class MoveLog {
+    // Constants for the binary format
+    private static final int MAGIC = 0x54545432;
+    private static final int SQUARE_MAGIC = 0x54545431;
+    private static final int INITIAL_MOVES = 16;
+    private static final long MAX_ARRAY_CELLS = 1 << 16; // Array boards index 64 bytes of streaks per cell
+    private static final int VARINT_BITS = 7;
+    private static final int VARINT_MASK = 0x7F;
+    private static final int VARINT_MORE = 0x80;
+    private static final String ERROR_FORMAT = "Not a move log record";
+    private static final String ROUND_FORMAT = "Round %d: %s won, %d moves, seed %d\n";
+    private static final String MISMATCH_FORMAT = "Replay mismatch: logged %s, replayed %s\n";
+
+    private int rows;               // Number of rows of the board
+    private int cols;               // Number of columns of the board
+    private int streak;             // Number of marks in a row needed to win
+    private long seed;              // Seed the round was played with
+    private Mark winner;            // Winner of the game, BLANK for a tie
+    private long[] moves;           // Cell indices of the moves, in order
+    private int moveCount;          // Number of recorded moves
+
+    /**
+     * Creates an empty log for a game on a square board.
+     *
+     * @param size Size of the board
+     * @param streak Number of marks in a row needed to win
+     * @param seed Seed the round is played with
+     */
+    public MoveLog(int size, int streak, long seed){
+        this(size, size, streak, seed);
+    }
+
+    /**
+     * Creates an empty log for a game on a rectangular board.
+     *
+     * @param rows Number of rows of the board
+     * @param cols Number of columns of the board
+     * @param streak Number of marks in a row needed to win
+     * @param seed Seed the round is played with
+     */
+    public MoveLog(int rows, int cols, int streak, long seed){
+        this.rows = rows;
+        this.cols = cols;
+        this.streak = streak;
+        this.seed = seed;
+        this.winner = Mark.BLANK;
+        this.moves = new long[INITIAL_MOVES];
+    }
+
+    /**
+     * Records a move.
+     *
+     * @param row The row of the placed mark
+     * @param col The column of the placed mark
+     */
+    public void addMove(int row, int col){
+        addCell((long) row * this.cols + col);
+    }
+
+    /**
+     * Appends a cell index to the moves, growing the array when it is full.
+     *
+     * @param cell The cell index (row * cols + col)
+     */
+    private void addCell(long cell){
+        if(this.moveCount == this.moves.length){
+            this.moves = Arrays.copyOf(this.moves, 2 * this.moves.length);
+        }
+        this.moves[this.moveCount++] = cell;
+    }
+
+    /**
+     * Records the result of the game.
+     *
+     * @param winner The winning mark, or BLANK for a tie
+     */
+    public void setWinner(Mark winner){
+        this.winner = winner;
+    }
+
+    /**
+     * Returns the recorded result of the game.
+     *
+     * @return The winning mark, or BLANK for a tie
+     */
+    public Mark getWinner(){
+        return this.winner;
+    }
+
+    /**
+     * Returns the seed the round was played with.
+     *
+     * @return The seed
+     */
+    public long getSeed(){
+        return this.seed;
+    }
+
+    /**
+     * Returns the number of recorded moves.
+     *
+     * @return Number of moves
+     */
+    public int getMoveCount(){
+        return this.moveCount;
+    }
+
+    /**
+     * Returns a recorded move.
+     *
+     * @param index Index of the move, from 0 for the first move
+     * @return The cell index (row * cols + col) of the move
+     */
+    public long getMove(int index){
+        return this.moves[index];
+    }
+
+    /**
+     * Replays the recorded moves on a new board, which is a {@link SparseBoard}
+     * for boards of more than 65536 cells (256x256), where the streak index of
+     * an array board would take more memory than the replay is worth.
+     *
+     * @param renderer Renderer to display the replayed game
+     * @return The winner of the replayed game
+     */
+    public Mark replay(Renderer renderer){
+        int[] next = {0};
+        Player replayer = (board, mark) -> {
+            long cell = this.moves[next[0]++];
+            board.putMark(mark, (int) (cell / this.cols), (int) (cell % this.cols));
+        };
+        Board board = (long) this.rows * this.cols <= MAX_ARRAY_CELLS ?
+                new Board(this.rows, this.cols) : new SparseBoard(this.rows, this.cols);
+        return new Game(replayer, replayer, board, this.streak, renderer).run();
+    }
+
+    /**
+     * Writes the record to a stream.
+     *
+     * @param out The stream to write to
+     * @throws IOException if writing fails
+     */
+    public void writeTo(DataOutputStream out) throws IOException {
+        out.writeInt(MAGIC);
+        writeVarint(out, this.rows);
+        writeVarint(out, this.cols);
+        writeVarint(out, this.streak);
+        out.writeLong(this.seed);
+        out.writeByte(this.winner.ordinal());
+        writeVarint(out, this.moveCount);
+        for(int i = 0; i < this.moveCount; i++){
+            writeVarint(out, this.moves[i]);
+        }
+    }
+
+    /**
+     * Reads the next record from a stream.
+     *
+     * @param in The stream to read from
+     * @return The record, or null at the end of the stream
+     * @throws IOException if reading fails or the stream is not a move log
+     */
+    public static MoveLog readFrom(DataInputStream in) throws IOException {
+        int magic;
+        try {
+            magic = in.readInt();
+        } catch (EOFException e) {
+            return null;
+        }
+        if(magic != MAGIC && magic != SQUARE_MAGIC){
+            throw new IOException(ERROR_FORMAT);
+        }
+        int rows = (int) readVarint(in);
+        int cols = magic == MAGIC ? (int) readVarint(in) : rows;
+        int streak = (int) readVarint(in);
+        MoveLog log = new MoveLog(rows, cols, streak, in.readLong());
+        log.winner = Mark.values()[in.readByte()];
+        int count = (int) readVarint(in);
+        for(int i = 0; i < count; i++){
+            log.addCell(readVarint(in));
+        }
+        return log;
+    }
+
+    /**
+     * Writes a non-negative integer using 7 bits per byte.
+     *
+     * @param out The stream to write to
+     * @param value The value to write
+     * @throws IOException if writing fails
+     */
+    private static void writeVarint(DataOutputStream out, long value) throws IOException {
+        while((value & ~VARINT_MASK) != 0){
+            out.writeByte((int) (value & VARINT_MASK) | VARINT_MORE);
+            value >>>= VARINT_BITS;
+        }
+        out.writeByte((int) value);
+    }
+
+    /**
+     * Reads a non-negative integer written by {@link #writeVarint}.
+     *
+     * @param in The stream to read from
+     * @return The value
+     * @throws IOException if reading fails
+     */
+    private static long readVarint(DataInputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.readUnsignedByte();
+            value |= (long) (b & VARINT_MASK) << shift;
+            shift += VARINT_BITS;
+        } while((b & VARINT_MORE) != 0);
+        return value;
+    }
+
+    /**
+     * Main entry point for replaying a move log file.
+     * Expected arguments:
+     * args[0] - Move log file
+     * args[1] - Round to replay (optional, replays and verifies every round if absent)
+     * args[2] - Renderer type (optional, defaults to "void")
+     *
+     * @param args Command line arguments as described above
+     * @throws IOException if the file cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        int only = args.length > 1 ? Integer.parseInt(args[1]) : -1;
+        String rendererType = args.length > 2 ? args[2] : "void";
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(args[0])))) {
+            MoveLog log;
+            for(int round = 0; (log = readFrom(in)) != null; round++){
+                if(only != -1 && round != only){
+                    continue;
+                }
+                Renderer renderer = new RendererFactory().buildRenderer(rendererType, log.cols);
+                Mark replayed = log.replay(renderer);
+                System.out.printf(ROUND_FORMAT, round, log.winner.name(), log.moveCount, log.seed);
+                if(replayed != log.winner){
+                    System.out.printf(MISMATCH_FORMAT, log.winner.name(), replayed.name());
+                }
+            }
+        }
+    }
+}
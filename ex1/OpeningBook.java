@@ -0,0 +1,356 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.ShortBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * An opening book for square boards: the best move of every opening position
+ * of the first few plies, found offline by a deep {@link AlphaBetaPlayer}
+ * search, so players do not recompute the same openings in every round.
+ *
+ * The book covers the positions either side can reach by following the book
+ * while the opponent plays any move. Positions are keyed by their canonical
+ * Zobrist hash, the smallest hash of the eight {@link Symmetry symmetric}
+ * positions, and moves are stored in the canonical orientation, so every
+ * rotation or mirror of a position shares one entry.
+ *
+ * File Structure:
+ * - int magic number "TOB1", int board size, int win streak, int plies,
+ *   int number of entries
+ * - the canonical hash of every entry, as longs in ascending order
+ * - the canonical best move of every entry, as shorts in the same order, so
+ *   books are limited to boards of up to 181x181
+ *
+ * The file is memory-mapped when loaded and looked up by binary search.
+ *
+ * @author Amit Moses
+ */
+public class OpeningBook {
+    // Constants for the file format and the default search
+    private static final int MAGIC = 0x544F4231;
+    private static final int HEADER_BYTES = 5 * Integer.BYTES;
+    private static final int DEFAULT_PLIES = 3;
+    private static final long DEFAULT_BUDGET_MILLIS = 100;
+    private static final int NUM_PLAYERS = 2;
+    private static final int MAX_CELLS = Short.MAX_VALUE + 1; // Moves are stored as shorts
+    private static final String FILE_FORMAT = "book-%dx%d-%d.bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String ERROR_FORMAT = "Not an opening book file";
+    private static final String ERROR_SIZE = "Opening books support at most " + MAX_CELLS + " cells";
+    private static final String ERROR_MISSING = "Missing opening book file %s, build it with: java OpeningBook %d %d";
+    private static final String DONE_FORMAT = "Built %dx%d, streak %d: %d positions of the first %d plies\n";
+
+    /** Books shared by all players, keyed by file name */
+    private static final Map<String, OpeningBook> CACHE = new HashMap<>();
+
+    private int size;               // Size of the board
+    private int streak;             // Number of marks in a row needed to win
+    private int plies;              // Number of plies the book covers
+    private Zobrist zobrist;        // Keys the hashes are built from
+    private Symmetry symmetry;      // Symmetries used to find canonical positions
+    private LongBuffer keys;        // Canonical hash of every entry, ascending
+    private ShortBuffer moves;      // Canonical best move of every entry
+
+    /**
+     * Creates a book over the given entries.
+     *
+     * @param size Size of the board
+     * @param streak Number of marks in a row needed to win
+     * @param plies Number of plies the book covers
+     * @param keys Canonical hash of every entry, ascending
+     * @param moves Canonical best move of every entry
+     */
+    private OpeningBook(int size, int streak, int plies, LongBuffer keys, ShortBuffer moves){
+        this.size = size;
+        this.streak = streak;
+        this.plies = plies;
+        this.keys = keys;
+        this.moves = moves;
+        this.zobrist = Zobrist.forCells(size * size);
+        this.symmetry = Symmetry.forSize(size);
+    }
+
+    /**
+     * Returns the book for a board configuration, shared by every caller.
+     * The book is loaded from its default file in the working directory,
+     * which is built offline beforehand by running {@link #main}.
+     *
+     * @param size Size of the board
+     * @param streak Number of marks in a row needed to win
+     * @return The book
+     * @throws IllegalStateException if the book file has not been built
+     */
+    public static synchronized OpeningBook forConfig(int size, int streak){
+        String name = String.format(FILE_FORMAT, size, size, streak);
+        OpeningBook book = CACHE.get(name);
+        if(book == null){
+            try {
+                Path file = Paths.get(name);
+                if(!Files.exists(file)){
+                    throw new IllegalStateException(String.format(ERROR_MISSING, name, size, streak));
+                }
+                book = load(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            CACHE.put(name, book);
+        }
+        return book;
+    }
+
+    /**
+     * Maps a book file into memory.
+     *
+     * @param file The book file
+     * @return The book
+     * @throws IOException if the file cannot be read or is not a book
+     */
+    public static OpeningBook load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC){
+                throw new IOException(ERROR_FORMAT);
+            }
+            int size = buffer.getInt(Integer.BYTES);
+            int streak = buffer.getInt(2 * Integer.BYTES);
+            int plies = buffer.getInt(3 * Integer.BYTES);
+            int count = buffer.getInt(4 * Integer.BYTES);
+            if(buffer.limit() != HEADER_BYTES + count * (Long.BYTES + Short.BYTES)){
+                throw new IOException(ERROR_FORMAT);
+            }
+            LongBuffer keys = buffer.slice(HEADER_BYTES, count * Long.BYTES).asLongBuffer();
+            ShortBuffer moves = buffer.slice(HEADER_BYTES + count * Long.BYTES, count * Short.BYTES).asShortBuffer();
+            return new OpeningBook(size, streak, plies, keys, moves);
+        }
+    }
+
+    /**
+     * Searches every book position and writes the book. A position is
+     * searched once, however many move orders or symmetries lead to it.
+     * The book is written to a temporary file first and then moved into
+     * place, so a partially written book is never loaded.
+     *
+     * @param size Size of the board
+     * @param streak Number of marks in a row needed to win
+     * @param plies Number of plies to cover, at most 2 * streak - 1 so no
+     *              book position is already won
+     * @param budgetMillis Search time per position, in milliseconds
+     * @param file The book file
+     * @return Number of positions in the book
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if the board has more cells than a short move can address
+     */
+    public static int build(int size, int streak, int plies, long budgetMillis, Path file) throws IOException {
+        if((long) size * size > MAX_CELLS){
+            throw new IllegalArgumentException(ERROR_SIZE);
+        }
+        int cells = size * size;
+        plies = Math.min(plies, Math.min(cells, NUM_PLAYERS * streak - 1));
+        OpeningBook book = new OpeningBook(size, streak, plies, null, null);
+        AlphaBetaPlayer searcher = new AlphaBetaPlayer(streak);
+        TreeMap<Long, Short> entries = new TreeMap<>();
+        for(int side = 0; side < NUM_PLAYERS; side++){
+            // Positions with the book side to move, at plies side, side + 2, ...
+            Map<Long, int[]> level = new LinkedHashMap<>();
+            List<int[]> starts = side == 0 ? List.of(new int[cells]) : book.replies(new int[cells]);
+            for(int[] start : starts){
+                level.putIfAbsent(book.canonicalKey(start)[0], start);
+            }
+            for(int ply = side; ply < plies; ply += NUM_PLAYERS){
+                Map<Long, int[]> next = new LinkedHashMap<>();
+                for(int[] position : level.values()){
+                    long[] key = book.canonicalKey(position);
+                    int move = searcher.chooseMove(book.toBoard(position), ply % NUM_PLAYERS == 0 ? Mark.X : Mark.O,
+                            Deadline.afterMillis(budgetMillis));
+                    entries.put(key[0], (short) book.symmetry.apply((int) key[1], move));
+                    if(ply + NUM_PLAYERS < plies){
+                        position[move] = ply % NUM_PLAYERS + 1;
+                        for(int[] reply : book.replies(position)){
+                            next.putIfAbsent(book.canonicalKey(reply)[0], reply);
+                        }
+                        position[move] = 0;
+                    }
+                }
+                level = next;
+            }
+        }
+        ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + entries.size() * (Long.BYTES + Short.BYTES));
+        data.putInt(MAGIC).putInt(size).putInt(streak).putInt(plies).putInt(entries.size());
+        for(long key : entries.keySet()){
+            data.putLong(key);
+        }
+        for(short move : entries.values()){
+            data.putShort(move);
+        }
+        Path temp = Paths.get(file + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            data.flip();
+            while(data.hasRemaining()){
+                channel.write(data);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        return entries.size();
+    }
+
+    /**
+     * Returns the size of the board this book was built for.
+     *
+     * @return The width/height of the board
+     */
+    public int getSize(){
+        return this.size;
+    }
+
+    /**
+     * Returns the win streak this book was built for.
+     *
+     * @return Number of marks in a row needed to win
+     */
+    public int getStreak(){
+        return this.streak;
+    }
+
+    /**
+     * Returns the number of plies the book covers.
+     *
+     * @return Number of opening plies
+     */
+    public int getPlies(){
+        return this.plies;
+    }
+
+    /**
+     * Looks up the book move of a position. Positions after the opening are
+     * answered without hashing the board.
+     *
+     * @param board The board, with the side to move about to play
+     * @return The book cell (row * size + col), or -1 if the position is not in the book
+     */
+    public int getBookMove(Board board){
+        int cells = this.size * this.size;
+        if(board.getRows() != this.size || board.getCols() != this.size
+                || cells - board.getFreeCount() >= this.plies){
+            return -1;
+        }
+        int[] position = new int[cells];
+        for(int cell = 0; cell < cells; cell++){
+            position[cell] = board.getMark(cell / this.size, cell % this.size).ordinal();
+        }
+        long[] key = canonicalKey(position);
+        int low = 0;
+        int high = this.keys.limit() - 1;
+        while(low <= high){
+            int middle = (low + high) >>> 1;
+            long found = this.keys.get(middle);
+            if(found < key[0]){
+                low = middle + 1;
+            } else if(found > key[0]){
+                high = middle - 1;
+            } else {
+                return this.symmetry.apply(this.symmetry.invert((int) key[1]), this.moves.get(middle));
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Computes the canonical hash of a position, the smallest of the hashes
+     * of its eight symmetric positions, as {@link Board#getCanonicalHash} does.
+     *
+     * @param position Mark ordinal of every cell
+     * @return The canonical hash, and the symmetry that produced it
+     */
+    private long[] canonicalKey(int[] position){
+        long best = 0;
+        int bestSymmetry = -1;
+        for(int s = 0; s < Symmetry.COUNT; s++){
+            long hash = 0;
+            for(int cell = 0; cell < position.length; cell++){
+                if(position[cell] != 0){
+                    hash ^= this.zobrist.getKey(this.symmetry.apply(s, cell), Mark.values()[position[cell]]);
+                }
+            }
+            if(bestSymmetry < 0 || hash < best){
+                best = hash;
+                bestSymmetry = s;
+            }
+        }
+        return new long[]{best, bestSymmetry};
+    }
+
+    /**
+     * Lists the positions after every move of the side to move.
+     *
+     * @param position Mark ordinal of every cell
+     * @return One new position per free cell
+     */
+    private List<int[]> replies(int[] position){
+        int marks = 0;
+        for(int mark : position){
+            marks += mark == 0 ? 0 : 1;
+        }
+        List<int[]> replies = new ArrayList<>();
+        for(int cell = 0; cell < position.length; cell++){
+            if(position[cell] == 0){
+                int[] reply = position.clone();
+                reply[cell] = marks % NUM_PLAYERS + 1;
+                replies.add(reply);
+            }
+        }
+        return replies;
+    }
+
+    /**
+     * Builds a board holding a position.
+     *
+     * @param position Mark ordinal of every cell
+     * @return A new board with the marks of the position
+     */
+    private Board toBoard(int[] position){
+        Board board = new Board(this.size);
+        for(int cell = 0; cell < position.length; cell++){
+            if(position[cell] != 0){
+                board.putMark(Mark.values()[position[cell]], cell / this.size, cell % this.size);
+            }
+        }
+        return board;
+    }
+
+    /**
+     * Main entry point for building a book file.
+     * Expected arguments:
+     * args[0] - Board size
+     * args[1] - Win streak
+     * args[2] - Number of plies (optional, defaults to 3)
+     * args[3] - Search time per position in milliseconds (optional, defaults to 100)
+     * args[4] - Output file (optional, defaults to book-SIZExSIZE-STREAK.bin)
+     *
+     * @param args Command line arguments as described above
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int size = Integer.parseInt(args[0]);
+        int streak = Integer.parseInt(args[1]);
+        int plies = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_PLIES;
+        long budgetMillis = args.length > 3 ? Long.parseLong(args[3]) : DEFAULT_BUDGET_MILLIS;
+        Path file = Paths.get(args.length > 4 ? args[4] : String.format(FILE_FORMAT, size, size, streak));
+        int count = build(size, streak, plies, budgetMillis, file);
+        System.out.printf(DONE_FORMAT, size, size, streak, count, OpeningBook.load(file).getPlies());
+    }
+}
@@ -0,0 +1,292 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * Plays the rounds of a tournament in parallel on a fork-join pool.
+ * The rounds are split into ranges, and every range is played on the players,
+ * board and game of the thread that runs it. Every worker thread builds these
+ * once and resets them between rounds, so no game state is shared between
+ * threads and nothing is allocated per range. The win counters of the ranges
+ * are summed, which gives the same totals as the sequential {@link Tournament}
+ * whenever every round is reproducible on its own, which is the case with a
+ * tournament seed.
+ *
+ * Rounds are never rendered in parallel mode, since interleaved frames from
+ * several workers would be meaningless.
+ *
+ * @author Amit Moses
+ */
+public class ParallelTournament {
+    // Constants for splitting the rounds between workers
+    private static final int NUM_PLAYERS = 2; // Number of players in the tournament
+    private static final int ROUNDS_PER_TASK = 256; // Rounds a worker plays without splitting further
+    private static final int OVERRUNS = NUM_PLAYERS; // Slot of the late moves in the counts of a range
+
+    // Tournament state
+    private String[] playerTypes;   // The two player types, built once per worker
+    private int[] result;           // Array storing win counts [player1 wins, player2 wins]
+    private long overruns;          // Moves of the last tournament that ran over the move budget
+    private int rounds;             // Total number of rounds to play
+    private ForkJoinPool pool;      // Pool the rounds are played on
+    private String boardType;       // Board representation used for every round
+    private boolean seeded;         // Whether players are reseeded before every round
+    private long seed;              // Tournament seed the round seeds are derived from
+    private long moveBudgetMillis;  // Time budget for a single move, or 0 for none
+    private ThreadLocal<Worker> workers = new ThreadLocal<>(); // Players and game of every worker thread
+
+    /**
+     * Creates a new parallel tournament.
+     *
+     * @param rounds Number of rounds to play in the tournament
+     * @param pool Fork-join pool that plays the rounds
+     * @param playerType1 Type of the first player, as accepted by {@link PlayerFactory#buildPlayer}
+     * @param playerType2 Type of the second player, as accepted by {@link PlayerFactory#buildPlayer}
+     * @param boardType Board type as accepted by {@link BoardFactory#buildBoard}
+     */
+    public ParallelTournament(int rounds, ForkJoinPool pool, String playerType1, String playerType2,
+                              String boardType){
+        this.rounds = rounds;
+        this.result = new int[]{0, 0};
+        this.pool = pool;
+        this.playerTypes = new String[]{playerType1, playerType2};
+        this.boardType = boardType;
+    }
+
+    /**
+     * Creates a new reproducible parallel tournament. Players are reseeded
+     * before every round exactly as in {@link Tournament}, so the results are
+     * identical to a sequential tournament with the same seed.
+     *
+     * @param rounds Number of rounds to play in the tournament
+     * @param pool Fork-join pool that plays the rounds
+     * @param playerType1 Type of the first player, as accepted by {@link PlayerFactory#buildPlayer}
+     * @param playerType2 Type of the second player, as accepted by {@link PlayerFactory#buildPlayer}
+     * @param boardType Board type as accepted by {@link BoardFactory#buildBoard}
+     * @param seed The tournament seed
+     */
+    public ParallelTournament(int rounds, ForkJoinPool pool, String playerType1, String playerType2,
+                              String boardType, long seed){
+        this(rounds, pool, playerType1, playerType2, boardType);
+        this.seeded = true;
+        this.seed = seed;
+    }
+
+    /**
+     * Gives every move of every worker's game a soft time budget, see
+     * {@link Game#setMoveBudget}. The late moves of all workers are summed
+     * and displayed with the results.
+     *
+     * @param budgetMillis Time budget for a single move in milliseconds, or 0 for no budget
+     */
+    public void setMoveBudget(long budgetMillis){
+        this.moveBudgetMillis = budgetMillis;
+    }
+
+    /**
+     * Plays all rounds of the tournament on the pool and displays the results.
+     *
+     * @param size Size of the game board to use for all rounds
+     * @param winStreak Number of marks in a row needed to win each game
+     * @param playerName1 The name of the first player.
+     * @param playerName2 The name of the second player.
+     */
+    public void playTournament(int size, int winStreak, String playerName1, String playerName2){
+        play(size, winStreak);
+        Tournament.displayResults(new String[]{playerName1, playerName2}, this.result, this.rounds);
+        Tournament.displayOverruns(this.moveBudgetMillis, this.overruns);
+    }
+
+    /**
+     * Plays all rounds of the tournament on the pool without displaying the
+     * results. Playing the same tournament again reuses the players and games
+     * the worker threads built before.
+     *
+     * @param size Size of the game board to use for all rounds
+     * @param winStreak Number of marks in a row needed to win each game
+     * @return Array of win counts [player1 wins, player2 wins]
+     */
+    int[] play(int size, int winStreak){
+        int[] counts = this.pool.invoke(new RoundsTask<>(0, this.rounds, ROUNDS_PER_TASK,
+                (from, to) -> playRange((int) from, (int) to, size, winStreak), ParallelTournament::sum));
+        this.result = new int[]{counts[0], counts[1]};
+        this.overruns = counts[OVERRUNS];
+        return getResult();
+    }
+
+    /**
+     * Returns the number of moves of the last played tournament that ran over
+     * the move budget, over all workers.
+     *
+     * @return Number of late moves
+     */
+    public long getOverruns(){
+        return this.overruns;
+    }
+
+    /**
+     * Returns the win counts of the last played tournament.
+     *
+     * @return Array of win counts [player1 wins, player2 wins]
+     */
+    public int[] getResult(){
+        return this.result.clone();
+    }
+
+    /**
+     * Returns the players and game of the current thread, building them on
+     * the first range the thread plays, or when the board configuration
+     * changed since its last range.
+     *
+     * @param size Size of the game board
+     * @param winStreak Number of marks in a row needed to win
+     * @return The worker of the current thread
+     */
+    private Worker workerFor(int size, int winStreak){
+        Worker worker = this.workers.get();
+        if(worker == null || worker.size != size || worker.winStreak != winStreak){
+            worker = new Worker(size, winStreak);
+            this.workers.set(worker);
+        }
+        worker.game.setMoveBudget(this.moveBudgetMillis);
+        return worker;
+    }
+
+    /**
+     * The players and the game of one worker thread, reused for every range
+     * the thread plays.
+     */
+    private class Worker {
+        private final int size;
+        private final int winStreak;
+        private final Player[] players;
+        private final Game game;
+
+        /**
+         * Builds the players and the game of a worker thread.
+         *
+         * @param size Size of the game board
+         * @param winStreak Number of marks in a row needed to win
+         */
+        Worker(int size, int winStreak){
+            PlayerFactory playerFactory = new PlayerFactory();
+            this.size = size;
+            this.winStreak = winStreak;
+            this.players = new Player[]{playerFactory.buildPlayer(playerTypes[0], size, winStreak),
+                    playerFactory.buildPlayer(playerTypes[1], size, winStreak)};
+            this.game = new Game(players[0], players[1], new BoardFactory().buildBoard(boardType, size),
+                    winStreak, new VoidRenderer());
+        }
+    }
+
+    /**
+     * Plays every round of a range with the players of the current thread,
+     * on its single game that is reset between rounds.
+     *
+     * @param from First round of the range
+     * @param to Round after the last round of the range
+     * @param size Size of the game board
+     * @param winStreak Number of marks in a row needed to win
+     * @return Counts of the range [player1 wins, player2 wins, late moves]
+     */
+    private int[] playRange(int from, int to, int size, int winStreak){
+        Worker worker = workerFor(size, winStreak);
+        int overrunsBefore = worker.game.getOverruns();
+        int[] counts = new int[NUM_PLAYERS + 1];
+        for(int i = from; i < to; i++){
+            if(this.seeded){
+                Tournament.reseed(worker.players, Tournament.seedFor(this.seed, i));
+            }
+            int winner = Tournament.playRound(worker.players, worker.game, i, null);
+            if(0 <= winner){
+                counts[winner]++;
+            }
+        }
+        counts[OVERRUNS] = worker.game.getOverruns() - overrunsBefore;
+        return counts;
+    }
+
+    /**
+     * Adds the counts of the right range to those of the left range.
+     *
+     * @param left Counts of the left range, summed in place
+     * @param right Counts of the right range
+     * @return The summed counts
+     */
+    private static int[] sum(int[] left, int[] right){
+        for(int i = 0; i < left.length; i++){
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    /**
+     * The work a single worker does on a range of rounds.
+     *
+     * @param <T> Type of the result of a range
+     */
+    interface RangeWork<T> {
+        /**
+         * Plays the rounds [from, to) on the current thread.
+         *
+         * @param from First round of the range
+         * @param to Round after the last round of the range
+         * @return The result of the range
+         */
+        T play(long from, long to);
+    }
+
+    /**
+     * A range of rounds [from, to) played by a single worker, or split in two
+     * when the range is larger than the task's limit. The results of the two
+     * halves are merged left to right, so the split, and with it the order
+     * results are combined in, depends only on the range and not on which
+     * threads play it. Used for the rounds of a tournament and for the
+     * self-play games of {@link PatternTrainer}.
+     *
+     * @param <T> Type of the result of a range
+     */
+    static class RoundsTask<T> extends RecursiveTask<T> {
+        private static final long serialVersionUID = 1L;
+
+        private final long from;
+        private final long to;
+        private final int roundsPerTask;
+        private final RangeWork<T> work;
+        private final BinaryOperator<T> merge;
+
+        /**
+         * Creates a task for the rounds [from, to).
+         *
+         * @param from First round of the range
+         * @param to Round after the last round of the range
+         * @param roundsPerTask Rounds a worker plays without splitting further
+         * @param work The work of a range that is not split
+         * @param merge Merges the results of a left and a right range
+         */
+        RoundsTask(long from, long to, int roundsPerTask, RangeWork<T> work, BinaryOperator<T> merge){
+            this.from = from;
+            this.to = to;
+            this.roundsPerTask = roundsPerTask;
+            this.work = work;
+            this.merge = merge;
+        }
+
+        /**
+         * Plays the range, splitting it while it is too large.
+         *
+         * @return The result of the range
+         */
+        @Override
+        protected T compute(){
+            if(to - from <= roundsPerTask){
+                return work.play(from, to);
+            }
+            long middle = (from + to) >>> 1;
+            RoundsTask<T> left = new RoundsTask<>(from, middle, roundsPerTask, work, merge);
+            left.fork();
+            T right = new RoundsTask<>(middle, to, roundsPerTask, work, merge).compute();
+            return merge.apply(left.join(), right);
+        }
+    }
+}
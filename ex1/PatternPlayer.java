@@ -0,0 +1,120 @@
+import java.util.SplittableRandom;
+
+/**
+ * A player that evaluates its moves with a learned {@link PatternTable}.
+ * Every free cell is scored by how much placing a mark there raises the
+ * table's value of the position for the player, which only reads the windows
+ * through the cell, and the best cell is played. A move that completes a
+ * streak is always played, as is a move that blocks the opponent from
+ * completing one, and ties are broken at random.
+ *
+ * Unlike the hand-written heuristics, which only look at the longest streak
+ * next to a cell, the table weighs every pattern of marks, gaps and blocked
+ * cells in the windows around it, as learned from self-play.
+ *
+ * @author Amit Moses
+ */
+public class PatternPlayer implements Player, Seedable {
+    private PatternTable table;                         // The table the moves are evaluated with
+    private double exploration;                         // Probability of a random move
+    private SplittableRandom rand = new SplittableRandom(); // Source of exploration and tie-breaks
+
+    // Board copy of the current turn
+    private int rows;
+    private int cols;
+    private int[] cells;
+
+    /**
+     * Creates a new PatternPlayer with the shared table of the win streak.
+     *
+     * @param streak Number of marks in a row needed to win
+     * @throws IllegalStateException if the table file has not been trained
+     */
+    public PatternPlayer(int streak){
+        this.table = PatternTable.forStreak(streak);
+    }
+
+    /**
+     * Creates a new PatternPlayer with a given table, for training.
+     *
+     * @param table The table to evaluate moves with
+     * @param exploration Probability of playing a random move instead of the best one
+     */
+    public PatternPlayer(PatternTable table, double exploration){
+        this.table = table;
+        this.exploration = exploration;
+    }
+
+    /**
+     * Restarts the random number generator with the given seed.
+     *
+     * @param seed The seed
+     */
+    @Override
+    public void setSeed(long seed){
+        this.rand = new SplittableRandom(seed);
+    }
+
+    /**
+     * Plays a winning cell, else a cell the opponent would win on, else the
+     * free cell with the best value change.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     */
+    @Override
+    public void playTurn(Board board, Mark mark){
+        if(this.exploration > 0 && this.rand.nextDouble() < this.exploration){
+            long cell = board.getRandomFreeCell(this.rand);
+            board.putMark(mark, (int) (cell / board.getCols()), (int) (cell % board.getCols()));
+            return;
+        }
+        loadBoard(board);
+        int own = mark.ordinal();
+        int other = mark == Mark.X ? Mark.O.ordinal() : Mark.X.ordinal();
+        int block = -1;
+        int best = -1;
+        float bestDelta = Float.NEGATIVE_INFINITY;
+        int ties = 0;
+        for(int cell = 0; cell < this.cells.length; cell++){
+            if(this.cells[cell] != 0){
+                continue;
+            }
+            if(this.table.isWinningMove(this.cells, this.rows, this.cols, cell, own)){
+                board.putMark(mark, cell / this.cols, cell % this.cols);
+                return;
+            }
+            if(block < 0 && this.table.isWinningMove(this.cells, this.rows, this.cols, cell, other)){
+                block = cell;
+            }
+            float delta = this.table.placeDelta(this.cells, this.rows, this.cols, cell, own, own);
+            if(best < 0 || delta > bestDelta){
+                best = cell;
+                bestDelta = delta;
+                ties = 1;
+            } else if(delta == bestDelta && this.rand.nextInt(++ties) == 0){
+                best = cell;
+            }
+        }
+        if(block >= 0){
+            best = block;
+        }
+        board.putMark(mark, best / this.cols, best % this.cols);
+    }
+
+    /**
+     * Copies the board into the cell array.
+     *
+     * @param board The game board
+     */
+    private void loadBoard(Board board){
+        if(this.cells == null || board.getRows() != this.rows || board.getCols() != this.cols){
+            this.rows = board.getRows();
+            this.cols = board.getCols();
+            this.cells = new int[this.rows * this.cols];
+        }
+        for(int i = 0; i < this.cells.length; i++){
+            this.cells[i] = board.getMark(i / this.cols, i % this.cols).ordinal();
+        }
+    }
+}
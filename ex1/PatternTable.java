@@ -0,0 +1,397 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An n-tuple evaluation table: one learned weight per pattern of a line
+ * window of k cells (k being the win streak). The value of a position for a
+ * player is the sum of the weights of all windows of the board, read from
+ * the player's point of view, so the table applies to boards of any size.
+ *
+ * Patterns are base-3 numbers with one digit per window cell: 0 for an empty
+ * cell, 1 for a mark of the player, 2 for a mark of the other player. A
+ * pattern and its reverse describe the same window, so they share a weight.
+ *
+ * File Structure:
+ * - int magic number "NTP1", int win streak, int number of patterns,
+ *   long number of training games
+ * - one float weight per pattern (3^k floats, 972 bytes for k = 5)
+ *
+ * Tables are trained by {@link PatternTrainer}. The file is memory-mapped
+ * when loaded, so every player reading the same table shares its pages.
+ *
+ * @author Amit Moses
+ */
+public class PatternTable {
+    // Constants for the file format and the patterns
+    private static final int MAGIC = 0x4E545031;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES + Long.BYTES;
+    private static final int BASE = 3;
+    private static final int OWN = 1;
+    private static final int OTHER = 2;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    private static final String FILE_FORMAT = "patterns-%d.bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String ERROR_FORMAT = "Not a pattern table file";
+    private static final String ERROR_MISSING = "Missing pattern table file %s, train it with: java PatternTrainer %d %d";
+
+    /** Tables shared by all players, keyed by file name */
+    private static final Map<String, PatternTable> CACHE = new HashMap<>();
+
+    private int streak;             // Number of cells of a window
+    private long games;             // Number of games the table was trained with
+    private FloatBuffer weights;    // One weight per pattern
+    private int[] powers;           // 3^i for every window offset i
+    private int[] canonical;        // Pattern whose weight every pattern shares
+    private int winPattern;         // Pattern of a window full of own marks
+
+    /**
+     * Creates a table over the given weights.
+     *
+     * @param streak Number of cells of a window
+     * @param games Number of games the table was trained with
+     * @param weights One weight per pattern
+     */
+    private PatternTable(int streak, long games, FloatBuffer weights){
+        this.streak = streak;
+        this.games = games;
+        this.weights = weights;
+        this.powers = new int[streak];
+        int count = 1;
+        for(int i = 0; i < streak; i++){
+            this.powers[i] = count;
+            this.winPattern += OWN * count;
+            count *= BASE;
+        }
+        this.canonical = new int[count];
+        for(int pattern = 0; pattern < count; pattern++){
+            int reversed = 0;
+            for(int i = 0; i < streak; i++){
+                reversed += (pattern / this.powers[i] % BASE) * this.powers[streak - 1 - i];
+            }
+            this.canonical[pattern] = Math.min(pattern, reversed);
+        }
+    }
+
+    /**
+     * Creates a table with all weights zero, in memory, for training.
+     *
+     * @param streak Number of cells of a window
+     * @return The table
+     */
+    public static PatternTable empty(int streak){
+        int count = 1;
+        for(int i = 0; i < streak; i++){
+            count *= BASE;
+        }
+        return new PatternTable(streak, 0, FloatBuffer.allocate(count));
+    }
+
+    /**
+     * Returns the table for a win streak, shared by every caller.
+     * The table is loaded from its default file in the working directory,
+     * which is trained beforehand by running {@link PatternTrainer#main}.
+     *
+     * @param streak Number of marks in a row needed to win
+     * @return The table
+     * @throws IllegalStateException if the table file has not been trained
+     */
+    public static synchronized PatternTable forStreak(int streak){
+        String name = String.format(FILE_FORMAT, streak);
+        PatternTable table = CACHE.get(name);
+        if(table == null){
+            try {
+                Path file = Paths.get(name);
+                if(!Files.exists(file)){
+                    throw new IllegalStateException(String.format(ERROR_MISSING, name, streak, 2 * streak));
+                }
+                table = load(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            CACHE.put(name, table);
+        }
+        return table;
+    }
+
+    /**
+     * Maps a table file into memory.
+     *
+     * @param file The table file
+     * @return The table, backed by the mapped file
+     * @throws IOException if the file cannot be read or is not a table
+     */
+    public static PatternTable load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC){
+                throw new IOException(ERROR_FORMAT);
+            }
+            int streak = buffer.getInt(Integer.BYTES);
+            int count = buffer.getInt(2 * Integer.BYTES);
+            long games = buffer.getLong(3 * Integer.BYTES);
+            if(buffer.limit() < HEADER_BYTES + count * Float.BYTES){
+                throw new IOException(ERROR_FORMAT);
+            }
+            return new PatternTable(streak, games, buffer.slice(HEADER_BYTES, count * Float.BYTES).asFloatBuffer());
+        }
+    }
+
+    /**
+     * Writes the table to a file. The table is written to a temporary file
+     * first and then moved into place, so a reader never sees a partial table.
+     *
+     * @param file The output file, replaced if it exists
+     * @throws IOException if the file cannot be written
+     */
+    public void writeTo(Path file) throws IOException {
+        int count = this.canonical.length;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + count * Float.BYTES);
+        buffer.putInt(MAGIC).putInt(this.streak).putInt(count).putLong(this.games);
+        for(int pattern = 0; pattern < count; pattern++){
+            buffer.putFloat(this.weights.get(pattern));
+        }
+        buffer.flip();
+        Path temp = Paths.get(file + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while(buffer.hasRemaining()){
+                channel.write(buffer);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Copies the table into memory, so a loaded table can be trained further.
+     *
+     * @return A trainable copy of the table
+     */
+    public PatternTable copy(){
+        FloatBuffer copy = FloatBuffer.allocate(this.canonical.length);
+        for(int pattern = 0; pattern < this.canonical.length; pattern++){
+            copy.put(pattern, this.weights.get(pattern));
+        }
+        return new PatternTable(this.streak, this.games, copy);
+    }
+
+    /**
+     * Returns the number of cells of a window, which is the win streak.
+     *
+     * @return The win streak
+     */
+    public int getStreak(){
+        return this.streak;
+    }
+
+    /**
+     * Returns the number of games the table was trained with.
+     *
+     * @return Number of training games
+     */
+    public long getGames(){
+        return this.games;
+    }
+
+    /**
+     * Returns the number of patterns, which is the length of a delta array
+     * accepted by {@link #update}.
+     *
+     * @return 3^k
+     */
+    public int getPatternCount(){
+        return this.canonical.length;
+    }
+
+    /**
+     * Returns the weight of a pattern.
+     *
+     * @param pattern The pattern
+     * @return The weight shared by the pattern and its reverse
+     */
+    public float getWeight(int pattern){
+        return this.weights.get(this.canonical[pattern]);
+    }
+
+    /**
+     * Evaluates a position for a player.
+     *
+     * @param cells Mark ordinal of every cell, row by row
+     * @param rows Number of rows of the board
+     * @param cols Number of columns of the board
+     * @param perspective Mark ordinal of the player
+     * @return Sum of the weights of all windows
+     */
+    public float evaluate(int[] cells, int rows, int cols, int perspective){
+        float value = 0;
+        for(int[] direction : DIRECTIONS){
+            for(int row = 0; row < rows; row++){
+                for(int col = 0; col < cols; col++){
+                    if(fits(row, col, direction, rows, cols)){
+                        value += getWeight(patternOf(cells, cols, row, col, direction, perspective));
+                    }
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Computes how the value of a position for a player changes when a mark
+     * is placed on an empty cell. Only the windows through the cell change,
+     * so this is much cheaper than evaluating the position twice.
+     *
+     * @param cells Mark ordinal of every cell, row by row
+     * @param rows Number of rows of the board
+     * @param cols Number of columns of the board
+     * @param cell An empty cell
+     * @param mark Mark ordinal of the placed mark
+     * @param perspective Mark ordinal of the player
+     * @return The change of value
+     */
+    public float placeDelta(int[] cells, int rows, int cols, int cell, int mark, int perspective){
+        int digit = mark == perspective ? OWN : OTHER;
+        int row = cell / cols;
+        int col = cell % cols;
+        float delta = 0;
+        for(int[] direction : DIRECTIONS){
+            for(int i = 0; i < this.streak; i++){
+                int startRow = row - i * direction[0];
+                int startCol = col - i * direction[1];
+                if(!fits(startRow, startCol, direction, rows, cols)){
+                    continue;
+                }
+                int before = patternOf(cells, cols, startRow, startCol, direction, perspective);
+                delta += getWeight(before + digit * this.powers[i]) - getWeight(before);
+            }
+        }
+        return delta;
+    }
+
+    /**
+     * Checks whether a player's mark on an empty cell would fill a window
+     * with the player's marks, which wins the game.
+     *
+     * @param cells Mark ordinal of every cell, row by row
+     * @param rows Number of rows of the board
+     * @param cols Number of columns of the board
+     * @param cell An empty cell
+     * @param player Mark ordinal of the player
+     * @return true if the move wins
+     */
+    public boolean isWinningMove(int[] cells, int rows, int cols, int cell, int player){
+        int row = cell / cols;
+        int col = cell % cols;
+        for(int[] direction : DIRECTIONS){
+            for(int i = 0; i < this.streak; i++){
+                int startRow = row - i * direction[0];
+                int startCol = col - i * direction[1];
+                if(fits(startRow, startCol, direction, rows, cols)
+                        && patternOf(cells, cols, startRow, startCol, direction, player) + OWN * this.powers[i] == this.winPattern){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Adds the deltas that move the value of a position by a given amount.
+     * The gradient of {@link #evaluate} is the number of windows of every
+     * shared pattern, and it is normalized by its squared length, so patterns
+     * that fill most windows (like the empty window) do not overshoot.
+     *
+     * @param cells Mark ordinal of every cell, row by row
+     * @param rows Number of rows of the board
+     * @param cols Number of columns of the board
+     * @param perspective Mark ordinal of the player
+     * @param change The amount to move the value by
+     * @param deltas Weight deltas, indexed by pattern
+     * @param counts Scratch array of zeros, indexed by pattern, left zeroed
+     */
+    public void addGradient(int[] cells, int rows, int cols, int perspective, float change,
+                            float[] deltas, int[] counts){
+        for(int[] direction : DIRECTIONS){
+            for(int row = 0; row < rows; row++){
+                for(int col = 0; col < cols; col++){
+                    if(fits(row, col, direction, rows, cols)){
+                        counts[this.canonical[patternOf(cells, cols, row, col, direction, perspective)]]++;
+                    }
+                }
+            }
+        }
+        long norm = 0;
+        for(int count : counts){
+            norm += (long) count * count;
+        }
+        for(int pattern = 0; pattern < counts.length && norm > 0; pattern++){
+            deltas[pattern] += change * counts[pattern] / norm;
+            counts[pattern] = 0;
+        }
+    }
+
+    /**
+     * Adds trained deltas to the weights. Only tables created in memory
+     * ({@link #empty} or {@link #copy}) can be updated.
+     *
+     * @param deltas Weight deltas, indexed by pattern
+     * @param trainedGames Number of games the deltas were learned from
+     */
+    public void update(float[] deltas, long trainedGames){
+        for(int pattern = 0; pattern < deltas.length; pattern++){
+            if(deltas[pattern] != 0){
+                this.weights.put(pattern, this.weights.get(pattern) + deltas[pattern]);
+            }
+        }
+        this.games += trainedGames;
+    }
+
+    /**
+     * Reads the pattern of a window from a player's point of view.
+     *
+     * @param cells Mark ordinal of every cell, row by row
+     * @param cols Number of columns of the board
+     * @param row Row of the first cell of the window
+     * @param col Column of the first cell of the window
+     * @param direction The window direction
+     * @param perspective Mark ordinal of the player
+     * @return The pattern
+     */
+    private int patternOf(int[] cells, int cols, int row, int col, int[] direction, int perspective){
+        int pattern = 0;
+        for(int i = 0; i < this.streak; i++){
+            int mark = cells[(row + i * direction[0]) * cols + col + i * direction[1]];
+            if(mark != 0){
+                pattern += (mark == perspective ? OWN : OTHER) * this.powers[i];
+            }
+        }
+        return pattern;
+    }
+
+    /**
+     * Checks whether a window lies inside the board.
+     *
+     * @param row Row of the first cell of the window
+     * @param col Column of the first cell of the window
+     * @param direction The window direction
+     * @param rows Number of rows of the board
+     * @param cols Number of columns of the board
+     * @return true if every cell of the window is on the board
+     */
+    private boolean fits(int row, int col, int[] direction, int rows, int cols){
+        int endRow = row + (this.streak - 1) * direction[0];
+        int endCol = col + (this.streak - 1) * direction[1];
+        return 0 <= row && row < rows && 0 <= col && col < cols
+                && 0 <= endRow && endRow < rows && 0 <= endCol && endCol < cols;
+    }
+}
@@ -0,0 +1,211 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Trains a {@link PatternTable} by temporal-difference learning in self-play.
+ *
+ * Games are played in batches on a fork-join pool, split into ranges by the
+ * same {@link ParallelTournament.RoundsTask} that plays tournament rounds:
+ * every range is played between two exploring {@link PatternPlayer}s on one
+ * reused game, each game is recorded with a {@link MoveLog}, and the range
+ * learns from it at once on its own copy of the table. At the end of a batch
+ * the weight changes of all ranges are averaged in range order, so a seeded
+ * training run is reproducible regardless of the number of workers.
+ *
+ * Learning is TD(0) on afterstates: the value of the position after a move,
+ * for the player who made it, is moved towards the negated value of the
+ * position after the reply, or towards 1 for a won and 0 for a tied game.
+ *
+ * @author Amit Moses
+ */
+public class PatternTrainer {
+    // Constants for the training schedule
+    private static final int GAMES_PER_BATCH = 64;
+    private static final int GAMES_PER_TASK = 16;
+    private static final int NUM_PLAYERS = 2;
+    private static final double DEFAULT_ALPHA = 0.1;
+    private static final double EXPLORATION = 0.1;
+    private static final float WIN_REWARD = 1;
+    private static final float TIE_REWARD = 0;
+    private static final long DEFAULT_GAMES = 20_000;
+    private static final long DEFAULT_SEED = 42;
+    private static final String FILE_FORMAT = "patterns-%d.bin";
+    private static final String DONE_FORMAT = "Trained streak %d on %dx%d: %d games in total\n";
+
+    private int size;               // Size of the training board
+    private int streak;             // Number of marks in a row needed to win
+    private double alpha;           // Learning rate of a position
+    private long seed;              // Seed the game seeds are derived from
+    private ForkJoinPool pool;      // Pool the batches are played on
+
+    /**
+     * Creates a trainer.
+     *
+     * @param size Size of the training board
+     * @param streak Number of marks in a row needed to win
+     * @param alpha Learning rate of a position
+     * @param seed Seed the game seeds are derived from
+     * @param pool Fork-join pool the batches are played on
+     */
+    public PatternTrainer(int size, int streak, double alpha, long seed, ForkJoinPool pool){
+        this.size = size;
+        this.streak = streak;
+        this.alpha = alpha;
+        this.seed = seed;
+        this.pool = pool;
+    }
+
+    /**
+     * Trains a table in place.
+     *
+     * @param table A table created in memory
+     * @param games Number of self-play games
+     * @return The table
+     */
+    public PatternTable train(PatternTable table, long games){
+        long first = table.getGames();
+        for(long from = first; from < first + games; from += GAMES_PER_BATCH){
+            long to = Math.min(first + games, from + GAMES_PER_BATCH);
+            float[] deltas = this.pool.invoke(new ParallelTournament.RoundsTask<>(from, to, GAMES_PER_TASK,
+                    (start, end) -> playRange(table, start, end), PatternTrainer::sum));
+            float tasks = deltas[deltas.length - 1];
+            for(int i = 0; i < deltas.length; i++){
+                deltas[i] /= tasks;
+            }
+            table.update(Arrays.copyOf(deltas, deltas.length - 1), to - from);
+        }
+        return table;
+    }
+
+    /**
+     * Plays every game of a range on a single reused game, updating a private
+     * copy of the table after every game.
+     *
+     * @param table The table of the batch
+     * @param from First game of the range (inclusive)
+     * @param to Last game of the range (exclusive)
+     * @return Weight changes of the copy, indexed by pattern, followed by 1
+     *         for the one range that learned them
+     */
+    private float[] playRange(PatternTable table, long from, long to){
+        PatternTable learner = table.copy();
+        float[] total = new float[table.getPatternCount() + 1];
+        float[] deltas = new float[table.getPatternCount()];
+        Player[] players = {new PatternPlayer(learner, EXPLORATION), new PatternPlayer(learner, EXPLORATION)};
+        Game game = new Game(players[0], players[1], new Board(this.size), this.streak, new VoidRenderer());
+        int[] cells = new int[this.size * this.size];
+        float[] values = new float[this.size * this.size];
+        for(long i = from; i < to; i++){
+            long gameSeed = Tournament.seedFor(this.seed, i);
+            Tournament.reseed(players, gameSeed);
+            MoveLog log = new MoveLog(this.size, this.streak, gameSeed);
+            Tournament.playRound(players, game, (int) (i % NUM_PLAYERS), log);
+            learn(learner, log, cells, values, deltas);
+            learner.update(deltas, 0);
+            for(int pattern = 0; pattern < deltas.length; pattern++){
+                total[pattern] += deltas[pattern];
+            }
+            Arrays.fill(deltas, 0);
+        }
+        total[deltas.length] = 1;
+        return total;
+    }
+
+    /**
+     * Adds the deltas of the right range to those of the left range.
+     *
+     * @param left Deltas and range count of the left range, summed in place
+     * @param right Deltas and range count of the right range
+     * @return The summed deltas
+     */
+    private static float[] sum(float[] left, float[] right){
+        for(int i = 0; i < left.length; i++){
+            left[i] += right[i];
+        }
+        return left;
+    }
+
+    /**
+     * Learns from a recorded game: replays it once to read the value of every
+     * afterstate, and once more to add the TD error of every afterstate along
+     * the gradient of its value.
+     *
+     * @param table The table to learn for
+     * @param log The recorded game
+     * @param cells Scratch array for the board
+     * @param values Scratch array for the afterstate values
+     * @param deltas Weight deltas to add to, indexed by pattern
+     */
+    private void learn(PatternTable table, MoveLog log, int[] cells, float[] values, float[] deltas){
+        int moves = log.getMoveCount();
+        float[] perspectives = new float[NUM_PLAYERS];
+        for(int i = 0; i < NUM_PLAYERS; i++){
+            perspectives[i] = table.evaluate(emptyCells(cells), size, size, i + 1);
+        }
+        for(int t = 0; t < moves; t++){
+            int cell = (int) log.getMove(t);
+            int mark = t % NUM_PLAYERS + 1;
+            for(int i = 0; i < NUM_PLAYERS; i++){
+                perspectives[i] += table.placeDelta(cells, size, size, cell, mark, i + 1);
+            }
+            cells[cell] = mark;
+            values[t] = perspectives[mark - 1];
+        }
+        int[] counts = new int[table.getPatternCount()];
+        emptyCells(cells);
+        for(int t = 0; t < moves; t++){
+            int mark = t % NUM_PLAYERS + 1;
+            cells[(int) log.getMove(t)] = mark;
+            float target = t + 1 < moves ? -values[t + 1]
+                    : log.getWinner() == Mark.BLANK ? TIE_REWARD : WIN_REWARD;
+            table.addGradient(cells, size, size, mark, (float) (this.alpha * (target - values[t])), deltas, counts);
+        }
+    }
+
+    /**
+     * Clears the scratch board.
+     *
+     * @param cells The scratch board
+     * @return The cleared scratch board
+     */
+    private static int[] emptyCells(int[] cells){
+        Arrays.fill(cells, 0);
+        return cells;
+    }
+
+    /**
+     * Main entry point for training a table file. An existing file is trained
+     * further, so training can be resumed.
+     * Expected arguments:
+     * args[0] - Win streak
+     * args[1] - Size of the training board
+     * args[2] - Number of self-play games (optional, defaults to 20000)
+     * args[3] - Number of parallel workers (optional, defaults to the available processors)
+     * args[4] - Training seed (optional, defaults to 42)
+     * args[5] - Output file (optional, defaults to patterns-STREAK.bin)
+     *
+     * @param args Command line arguments as described above
+     * @throws IOException if the file cannot be read or written
+     */
+    public static void main(String[] args) throws IOException {
+        int streak = Integer.parseInt(args[0]);
+        int size = Integer.parseInt(args[1]);
+        long games = args.length > 2 ? Long.parseLong(args[2]) : DEFAULT_GAMES;
+        int workers = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_SEED;
+        Path file = Paths.get(args.length > 5 ? args[5] : String.format(FILE_FORMAT, streak));
+        PatternTable table = Files.exists(file) ? PatternTable.load(file).copy() : PatternTable.empty(streak);
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            new PatternTrainer(size, streak, DEFAULT_ALPHA, seed, pool).train(table, games);
+        } finally {
+            pool.shutdown();
+        }
+        table.writeTo(file);
+        System.out.printf(DONE_FORMAT, streak, size, size, table.getGames());
+    }
+}
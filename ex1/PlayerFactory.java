@@ -7,10 +7,25 @@
  * - genius: Advanced AI player
  * - whatever: Random move player
  * - clever: Basic AI player
+ * - alphabeta: Alpha-beta search player
+ * - mcts: Monte Carlo Tree Search player
+ * - tablebase: Perfect player for boards of up to 4x4
+ * - threat: Threat-space search player for large boards and long streaks
+ * - pattern: Player evaluating moves with a pattern table learned in self-play
+ * - book:TYPE: Any of the above, playing the opening from an opening book
  *
  * @author Amit Moses
  */
 public class PlayerFactory {
+    /** Win streak assumed by search players when none is given */
+    private static final int DEFAULT_STREAK = 3;
+
+    /** Board size assumed by book players when none is given, as for a default Board */
+    private static final int DEFAULT_SIZE = 4;
+
+    /** Prefix of player types that play the opening from an opening book */
+    private static final String BOOK_PREFIX = "book:";
+
     /**
      * Creates a new PlayerFactory instance.
      */
@@ -27,12 +42,53 @@ public class PlayerFactory {
      * @return Player instance of requested type, or null if type is invalid
      */
     public Player buildPlayer(String type){
+        return buildPlayer(type, DEFAULT_STREAK);
+    }
+
+    /**
+     * Creates a player instance for games with the given win streak.
+     * Search players need the win streak to recognize won positions.
+     *
+     * @param type String identifier for player type, as in {@link #buildPlayer(String)},
+     *             or "alphabeta" - Alpha-beta search player
+     *             or "mcts" - Monte Carlo Tree Search player
+     *             or "tablebase" - Solved-position table player
+     *             or "threat" - Threat-space search player
+     *             or "pattern" - Learned pattern-table player
+     *             or "book:" followed by any of the types - That player with an opening book
+     * @param winStreak Number of marks in a row needed to win
+     * @return Player instance of requested type, or null if type is invalid
+     */
+    public Player buildPlayer(String type, int winStreak){
+        return buildPlayer(type, DEFAULT_SIZE, winStreak);
+    }
+
+    /**
+     * Creates a player instance for games on boards of the given size.
+     * Book players load the opening book of the size when they are created.
+     *
+     * @param type String identifier for player type, as in {@link #buildPlayer(String, int)}
+     * @param size Size of the board the player plays on
+     * @param winStreak Number of marks in a row needed to win
+     * @return Player instance of requested type, or null if type is invalid
+     * @throws IllegalStateException if a book player's book has not been built
+     */
+    public Player buildPlayer(String type, int size, int winStreak){
+        if(type.startsWith(BOOK_PREFIX)){
+            Player player = buildPlayer(type.substring(BOOK_PREFIX.length()), size, winStreak);
+            return player == null ? null : BookPlayer.wrap(player, size, winStreak);
+        }
         return switch (type) {
             case "human" -> new HumanPlayer();
             case "genius" -> new GeniusPlayer();
             case "whatever" -> new WhateverPlayer();
             case "clever" -> new CleverPlayer();
+            case "alphabeta" -> new AlphaBetaPlayer(winStreak);
+            case "mcts" -> new MctsPlayer(winStreak);
+            case "tablebase" -> new TablebasePlayer(winStreak);
+            case "threat" -> new ThreatSpacePlayer(winStreak);
+            case "pattern" -> new PatternPlayer(winStreak);
             default -> null;
         };
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
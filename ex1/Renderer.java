@@ -6,4 +6,10 @@
 
 interface Renderer {
     void renderBoard(Board board);
+
+    /**
+     * Blocks until every board passed to renderBoard has been displayed.
+     * Renderers that display synchronously have nothing to wait for.
+     */
+    default void flush(){}
 }
@@ -4,6 +4,7 @@
  *
  * Supported renderer types:
  * - console: that renders the board to the console.
+ * - async: that renders the board to the console on a background thread.
  * - void: that performs no rendering.
  *
  * @author Amit Moses
@@ -20,6 +21,7 @@ public class RendererFactory {
      *
      * @param type String identifier for renderer type:
      *             "console" - Console renderer
+     *             "async" - Asynchronous buffered console renderer
      *             "void" - Void renderer
      * @param size the size of the board
      * @return Renderer instance of requested type, or null if type is invalid
@@ -27,6 +29,7 @@ public class RendererFactory {
     public Renderer buildRenderer(String type, int size){
         return switch (type) {
             case "console" -> new ConsoleRenderer(size);
+            case "async" -> new AsyncConsoleRenderer(size);
             case "void" -> new VoidRenderer();
             default -> null;
         };
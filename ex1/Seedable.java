@@ -0,0 +1,16 @@
+/**
+ * Interface for players whose random choices can be reproduced.
+ * A tournament with a seed reseeds every Seedable player before each round,
+ * so a round plays the same way whichever thread plays it, and can be
+ * replayed by running it again with the same seed.
+ *
+ * @author Amit Moses
+ */
+interface Seedable {
+    /**
+     * Restarts the player's random number generator from a seed.
+     *
+     * @param seed The seed
+     */
+    void setSeed(long seed);
+}
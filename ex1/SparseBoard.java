@@ -0,0 +1,289 @@
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * A game board that only stores its occupied cells, for gomoku-style games
+ * on very large boards. Memory grows with the number of placed marks rather
+ * than with the area of the board, so boards of millions of cells cost only
+ * as much as the moves that were played on them.
+ *
+ * Key Features:
+ * - Same coordinates and move validation as {@link Board}, on any rows x cols
+ * - Open-addressing hash table of occupied cells (cell index to mark)
+ * - Win detection and streak lengths that only walk the lines through a cell
+ * - Random free cells drawn by rejection, which is fast while the board is sparse
+ *
+ * Board Structure:
+ * - Cell index is row * cols + col, as a long, so the area may exceed 2^31 cells
+ * - The hash of a position is the XOR of keys computed from the cell and mark,
+ *   so no per-cell key table is needed; sparse boards have no symmetric hashes
+ *
+ * @author Amit Moses
+ */
+public class SparseBoard extends Board {
+    /** Initial number of slots of the hash table (a power of two) */
+    private static final int INITIAL_CAPACITY = 64;
+
+    /** Random free-cell draws before falling back to a scan */
+    private static final int MAX_DRAWS = 64;
+
+    /** Marks by ordinal */
+    private static final Mark[] MARKS = Mark.values();
+
+    /** Row and column steps of the four line directions */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /** Cell index of every used slot */
+    private long[] keys;
+
+    /** Mark ordinal of every slot, 0 (BLANK) for unused slots */
+    private byte[] marks;
+
+    /** Cell index of every occupied cell, in the order the marks were placed */
+    private long[] placed;
+
+    /** Number of occupied cells */
+    private int count;
+
+    /** Zobrist-style hash of the position */
+    private long hash;
+
+    /**
+     * Creates a new empty square sparse board.
+     *
+     * @param size The width/height of the square board
+     */
+    public SparseBoard(int size){
+        this(size, size);
+    }
+
+    /**
+     * Creates a new empty rectangular sparse board.
+     *
+     * @param rows The number of rows (height) of the board
+     * @param cols The number of columns (width) of the board
+     */
+    public SparseBoard(int rows, int cols){
+        super(rows, cols, false, false);
+        this.keys = new long[INITIAL_CAPACITY];
+        this.marks = new byte[INITIAL_CAPACITY];
+        this.placed = new long[INITIAL_CAPACITY / 2];
+    }
+
+    /**
+     * Clears the board in place. The hash table keeps the capacity it grew
+     * to, so a board reused for games of similar length never grows again.
+     */
+    @Override
+    public void reset(){
+        super.reset();
+        Arrays.fill(this.marks, (byte) 0);
+        this.count = 0;
+        this.hash = 0;
+    }
+
+    /**
+     * Retrieves the mark at the specified position.
+     *
+     * @param row The row coordinate (0-based)
+     * @param col The column coordinate (0-based)
+     * @return The mark at the specified position (X, O, or BLANK)
+     */
+    @Override
+    public Mark getMark(int row, int col){
+        if(!isValidCord(row, col)){
+            return Mark.BLANK;
+        }
+        long cell = cellIndex(row, col);
+        int mask = this.keys.length - 1;
+        for(int slot = slotOf(cell, mask); this.marks[slot] != 0; slot = (slot + 1) & mask){
+            if(this.keys[slot] == cell){
+                return MARKS[this.marks[slot]];
+            }
+        }
+        return Mark.BLANK;
+    }
+
+    /**
+     * Returns the longest streak of a mark that a blank cell would join,
+     * by walking the four lines through the cell.
+     *
+     * @param mark The mark (X or O)
+     * @param row The row of a blank cell
+     * @param col The column of a blank cell
+     * @return Length of the longest adjacent streak, without the cell itself
+     */
+    @Override
+    public int getStreak(Mark mark, int row, int col){
+        int max = 0;
+        for(int[] direction : DIRECTIONS){
+            int length = 0;
+            for(int sign = -1; sign <= 1; sign += 2){
+                int r = row + sign * direction[0];
+                int c = col + sign * direction[1];
+                while(getMark(r, c) == mark){
+                    length++;
+                    r += sign * direction[0];
+                    c += sign * direction[1];
+                }
+            }
+            max = Math.max(max, length);
+        }
+        return max;
+    }
+
+    /**
+     * Returns the number of free (BLANK) cells on the board.
+     *
+     * @return Number of free cells, capped at Integer.MAX_VALUE
+     */
+    @Override
+    public int getFreeCount(){
+        return (int) Math.min(Integer.MAX_VALUE, (long) getRows() * getCols() - this.count);
+    }
+
+    /**
+     * Returns the number of marks placed on the board.
+     *
+     * @return Number of occupied cells
+     */
+    @Override
+    public int getMarkCount(){
+        return this.count;
+    }
+
+    /**
+     * Returns one of the occupied cells, in the order the marks were placed.
+     *
+     * @param index Index of the occupied cell, from 0 to getMarkCount() - 1
+     * @return The cell index (row * cols + col)
+     */
+    @Override
+    public long getMarkedCell(int index){
+        return this.placed[index];
+    }
+
+    /**
+     * Draws a free cell uniformly at random. Cells are drawn from the whole
+     * board until a free one is found, which takes a single draw on average
+     * while at most half of the board is occupied; a nearly full board falls
+     * back to picking among the free cells by a scan.
+     *
+     * @param rand Random number generator to draw with
+     * @return The cell index (row * cols + col), or -1 if the board is full
+     */
+    @Override
+    public long getRandomFreeCell(SplittableRandom rand){
+        long area = (long) getRows() * getCols();
+        if(this.count >= area){
+            return -1;
+        }
+        for(int i = 0; i < MAX_DRAWS; i++){
+            long cell = rand.nextLong(area);
+            if(getMark((int) (cell / getCols()), (int) (cell % getCols())) == Mark.BLANK){
+                return cell;
+            }
+        }
+        long skip = rand.nextLong(area - this.count);
+        for(long cell = 0; ; cell++){
+            if(getMark((int) (cell / getCols()), (int) (cell % getCols())) == Mark.BLANK && skip-- == 0){
+                return cell;
+            }
+        }
+    }
+
+    /**
+     * Returns the hash of the position. Sparse boards are not transformed by
+     * symmetries, so every symmetry has the same hash.
+     *
+     * @param symmetry The symmetry (ignored)
+     * @return The hash of the position
+     */
+    @Override
+    public long getHash(int symmetry){
+        return this.hash;
+    }
+
+    /**
+     * Records a newly placed mark in the position hash.
+     *
+     * @param mark The placed mark
+     * @param row The row of the placed mark
+     * @param col The column of the placed mark
+     */
+    @Override
+    protected void indexMark(Mark mark, int row, int col){
+        this.hash ^= Zobrist.computeKey(cellIndex(row, col), mark);
+    }
+
+    /**
+     * Stores a mark in the hash table, growing the table when it is half full.
+     *
+     * @param mark The mark to place (X or O)
+     * @param row The row coordinate
+     * @param col The column coordinate
+     */
+    @Override
+    protected void setMark(Mark mark, int row, int col){
+        if(2 * (this.count + 1) > this.keys.length){
+            grow();
+        }
+        insert(cellIndex(row, col), (byte) mark.ordinal());
+        this.placed[this.count++] = cellIndex(row, col);
+    }
+
+    /**
+     * Doubles the hash table and reinserts every occupied cell.
+     */
+    private void grow(){
+        long[] oldKeys = this.keys;
+        byte[] oldMarks = this.marks;
+        this.keys = new long[oldKeys.length * 2];
+        this.marks = new byte[oldMarks.length * 2];
+        this.placed = Arrays.copyOf(this.placed, this.keys.length / 2);
+        for(int slot = 0; slot < oldKeys.length; slot++){
+            if(oldMarks[slot] != 0){
+                insert(oldKeys[slot], oldMarks[slot]);
+            }
+        }
+    }
+
+    /**
+     * Inserts a cell into the first free slot of its probe sequence.
+     *
+     * @param cell The cell index
+     * @param mark The mark ordinal
+     */
+    private void insert(long cell, byte mark){
+        int mask = this.keys.length - 1;
+        int slot = slotOf(cell, mask);
+        while(this.marks[slot] != 0){
+            slot = (slot + 1) & mask;
+        }
+        this.keys[slot] = cell;
+        this.marks[slot] = mark;
+    }
+
+    /**
+     * Computes the cell index of a position.
+     *
+     * @param row The row coordinate
+     * @param col The column coordinate
+     * @return The cell index (row * cols + col)
+     */
+    private long cellIndex(int row, int col){
+        return (long) row * getCols() + col;
+    }
+
+    /**
+     * Computes the home slot of a cell in a table of the given mask.
+     *
+     * @param cell The cell index
+     * @param mask The table size minus one
+     * @return The home slot
+     */
+    private static int slotOf(long cell, int mask){
+        long mixed = cell * 0x9E3779B97F4A7C15L;
+        return (int) (mixed ^ (mixed >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/**
+ * Keeps, for every cell of a board and every mark, the lengths of the streaks
+ * that end right next to the cell in each of the four line directions.
+ * The index is updated in O(1) per placed mark, so the streak a blank cell
+ * would join can be read without walking the board.
+ *
+ * Index Structure:
+ * - before: length of the streak ending just before the cell (towards -direction)
+ * - after: length of the streak starting just after the cell (towards +direction)
+ * - Entries are indexed by (cell * 4 + direction) * 2 + (ordinal of the mark - 1)
+ *
+ * Only the entries of blank cells are kept exact, since those are the only
+ * cells that are ever scored.
+ *
+ * @author Amit Moses
+ */
+public class StreakIndex {
+    /** Number of line directions */
+    private static final int NUM_DIRECTIONS = 4;
+
+    /** Number of marks that have streaks (X and O) */
+    private static final int NUM_MARKS = 2;
+
+    /** Row and column steps of the four line directions */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /** Number of rows (height) of the board */
+    private int rows;
+
+    /** Number of columns (width) of the board */
+    private int cols;
+
+    /** Length of the streak ending just before each cell */
+    private int[] before;
+
+    /** Length of the streak starting just after each cell */
+    private int[] after;
+
+    /**
+     * Creates an empty index for a board.
+     *
+     * @param rows The number of rows (height) of the board
+     * @param cols The number of columns (width) of the board
+     */
+    public StreakIndex(int rows, int cols){
+        this.rows = rows;
+        this.cols = cols;
+        this.before = new int[rows * cols * NUM_DIRECTIONS * NUM_MARKS];
+        this.after = new int[rows * cols * NUM_DIRECTIONS * NUM_MARKS];
+    }
+
+    /**
+     * Clears the index in place, as for an empty board.
+     */
+    public void reset(){
+        Arrays.fill(this.before, 0);
+        Arrays.fill(this.after, 0);
+    }
+
+    /**
+     * Updates the index after a mark was placed on a blank cell.
+     * For every direction, the streak through the cell is joined with the
+     * streaks on both of its sides, and the blank cells at the two ends of the
+     * joined streak learn its new length.
+     *
+     * @param mark The placed mark (X or O)
+     * @param row The row of the placed mark
+     * @param col The column of the placed mark
+     */
+    public void update(Mark mark, int row, int col){
+        int markIndex = mark.ordinal() - 1;
+        int cell = row * cols + col;
+        for(int d = 0; d < NUM_DIRECTIONS; d++){
+            int entry = index(cell, d, markIndex);
+            int lengthBefore = before[entry];
+            int lengthAfter = after[entry];
+            int total = lengthBefore + lengthAfter + 1;
+
+            int endRow = row + DIRECTIONS[d][0] * (lengthAfter + 1);
+            int endCol = col + DIRECTIONS[d][1] * (lengthAfter + 1);
+            if(isValidCord(endRow, endCol)){
+                before[index(endRow * cols + endCol, d, markIndex)] = total;
+            }
+            int startRow = row - DIRECTIONS[d][0] * (lengthBefore + 1);
+            int startCol = col - DIRECTIONS[d][1] * (lengthBefore + 1);
+            if(isValidCord(startRow, startCol)){
+                after[index(startRow * cols + startCol, d, markIndex)] = total;
+            }
+        }
+    }
+
+    /**
+     * Returns the longest streak of a mark that a blank cell is adjacent to,
+     * counting the streaks on both sides of the cell in the same direction.
+     *
+     * @param mark The mark (X or O)
+     * @param row The row of a blank cell
+     * @param col The column of a blank cell
+     * @return Length of the longest streak the cell would join, without the cell
+     */
+    public int getStreak(Mark mark, int row, int col){
+        int markIndex = mark.ordinal() - 1;
+        int cell = row * cols + col;
+        int max = 0;
+        for(int d = 0; d < NUM_DIRECTIONS; d++){
+            int entry = index(cell, d, markIndex);
+            int length = before[entry] + after[entry];
+            if(length > max){
+                max = length;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Computes the array index of an entry.
+     *
+     * @param cell The cell index
+     * @param direction The direction index
+     * @param markIndex The mark index (0 for X, 1 for O)
+     * @return The array index of the entry
+     */
+    private static int index(int cell, int direction, int markIndex){
+        return (cell * NUM_DIRECTIONS + direction) * NUM_MARKS + markIndex;
+    }
+
+    /**
+     * Validates if the given coordinates are within the board boundaries.
+     *
+     * @param row Row coordinate to validate
+     * @param col Column coordinate to validate
+     * @return true if coordinates are valid, false otherwise
+     */
+    private boolean isValidCord(int row, int col){
+        return 0 <= row && row < rows && 0 <= col && col < cols;
+    }
+}
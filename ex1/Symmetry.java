@@ -0,0 +1,123 @@
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The eight symmetries of a square board: four rotations, each with and
+ * without a mirror. Every symmetry maps cell indices (row * size + col) to
+ * cell indices, so a position can be transformed cell by cell.
+ *
+ * Symmetry Structure:
+ * - Symmetry s rotates the board (s % 4) quarter turns clockwise
+ * - Symmetries 4 to 7 mirror the board left-to-right before rotating
+ * - Symmetry 0 is the identity
+ *
+ * @author Amit Moses
+ */
+public class Symmetry {
+    /** Number of symmetries of a square board */
+    public static final int COUNT = 8;
+
+    /** Number of rotations of a square board */
+    private static final int ROTATIONS = 4;
+
+    /** Shared symmetries, by board size */
+    private static final Map<Integer, Symmetry> SHARED = new ConcurrentHashMap<>();
+
+    /** Size of the board (both width and height) */
+    private int size;
+
+    /** Cell maps indexed by [symmetry][cell] */
+    private int[][] maps;
+
+    /** Inverse of every symmetry */
+    private int[] inverses;
+
+    /**
+     * Creates the symmetries of a square board.
+     *
+     * @param size The width/height of the board
+     */
+    public Symmetry(int size){
+        this.size = size;
+        this.maps = new int[COUNT][size * size];
+        for(int s = 0; s < COUNT; s++){
+            for(int row = 0; row < size; row++){
+                for(int col = 0; col < size; col++){
+                    int r = row;
+                    int c = s >= ROTATIONS ? size - 1 - col : col;
+                    for(int turn = 0; turn < s % ROTATIONS; turn++){
+                        int rotated = c;
+                        c = size - 1 - r;
+                        r = rotated;
+                    }
+                    this.maps[s][row * size + col] = r * size + c;
+                }
+            }
+        }
+        this.inverses = new int[COUNT];
+        for(int s = 0; s < COUNT; s++){
+            for(int t = 0; t < COUNT; t++){
+                if(isInverse(s, t)){
+                    this.inverses[s] = t;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the symmetries of a board size, shared by every caller.
+     * Symmetries are immutable once created, so they are safe to share across threads.
+     *
+     * @param size The width/height of the board
+     * @return The shared symmetries
+     */
+    public static Symmetry forSize(int size){
+        return SHARED.computeIfAbsent(size, Symmetry::new);
+    }
+
+    /**
+     * Returns the size of the board these symmetries act on.
+     *
+     * @return The width/height of the board
+     */
+    public int getSize(){
+        return this.size;
+    }
+
+    /**
+     * Maps a cell through a symmetry.
+     *
+     * @param symmetry The symmetry (0 to 7)
+     * @param cell The cell index (row * size + col)
+     * @return The index of the cell the given cell is mapped to
+     */
+    public int apply(int symmetry, int cell){
+        return this.maps[symmetry][cell];
+    }
+
+    /**
+     * Returns the symmetry that undoes the given symmetry.
+     *
+     * @param symmetry The symmetry (0 to 7)
+     * @return The inverse symmetry
+     */
+    public int invert(int symmetry){
+        return this.inverses[symmetry];
+    }
+
+    /**
+     * Checks whether one symmetry undoes another on every cell.
+     *
+     * @param s The first symmetry
+     * @param t The second symmetry
+     * @return true if t maps every cell back to where s took it from
+     */
+    private boolean isInverse(int s, int t){
+        for(int cell = 0; cell < this.size * this.size; cell++){
+            if(this.maps[t][this.maps[s][cell]] != cell){
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,366 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A solved-position table for small boards. The generator solves every
+ * position reachable from the empty board with perfect play, and the table
+ * answers the best move of any position with a single lookup.
+ *
+ * Positions are identified by their base-3 index (the sum of mark ordinal *
+ * 3^cell), so the table is a flat array indexed by position. Only the
+ * canonical position of every symmetry class is solved and stored, where the
+ * canonical position is the one of the eight {@link Symmetry symmetric}
+ * positions with the smallest index.
+ *
+ * File Structure:
+ * - int magic number "TTB1", int board size, int win streak
+ * - one byte per position index: (best canonical move + 1) << 2 | outcome,
+ *   or 0 for positions that are not canonical or not reachable
+ * - outcome is 1 for a win of the side to move, 2 for a tie, 3 for a loss
+ *
+ * The file is memory-mapped when loaded, so only the pages of the positions
+ * that are actually looked up are read from disk. Boards of up to 16 cells
+ * (4x4) are supported; a 4x4 table takes 3^16 bytes (43 MB) on disk.
+ *
+ * @author Amit Moses
+ */
+public class Tablebase {
+    /** Largest number of cells a table can be generated for */
+    public static final int MAX_CELLS = 16;
+
+    // Constants for the file format
+    private static final int MAGIC = 0x54544231;
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+    private static final int OUTCOME_BITS = 2;
+    private static final int SYMMETRY_BITS = 3;
+    private static final int WIN = 1;
+    private static final int TIE = 2;
+    private static final int LOSS = 3;
+    private static final int BASE = 3;
+    private static final int SCORE_OFFSET = 64;
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+    private static final String FILE_FORMAT = "tablebase-%dx%d-%d.bin";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final String ERROR_FORMAT = "Not a tablebase file";
+    private static final String ERROR_SIZE = "Tablebases support at most " + MAX_CELLS + " cells";
+    private static final String ERROR_MISSING = "Missing tablebase file %s, generate it with: java Tablebase %d %d";
+    private static final String DONE_FORMAT = "Solved %dx%d, streak %d: %s for X\n";
+
+    /** Tables shared by all players, keyed by file name */
+    private static final Map<String, Tablebase> CACHE = new HashMap<>();
+
+    private int size;               // Size of the board
+    private int streak;             // Number of marks in a row needed to win
+    private Symmetry symmetry;      // Symmetries used to find canonical positions
+    private int[] powers;           // 3^(cell mapped by symmetry s), indexed by s * cells + cell
+    private ByteBuffer entries;     // One entry byte per position index
+
+    /**
+     * Creates a table over the given entries.
+     *
+     * @param size Size of the board
+     * @param streak Number of marks in a row needed to win
+     * @param entries One entry byte per position index, starting at position 0
+     */
+    private Tablebase(int size, int streak, ByteBuffer entries){
+        this.size = size;
+        this.streak = streak;
+        this.entries = entries;
+        this.symmetry = Symmetry.forSize(size);
+        int cells = size * size;
+        this.powers = new int[Symmetry.COUNT * cells];
+        for(int s = 0; s < Symmetry.COUNT; s++){
+            for(int cell = 0; cell < cells; cell++){
+                int power = 1;
+                for(int i = 0; i < this.symmetry.apply(s, cell); i++){
+                    power *= BASE;
+                }
+                this.powers[s * cells + cell] = power;
+            }
+        }
+    }
+
+    /**
+     * Returns the table for a board configuration, shared by every caller.
+     * The table is loaded from its default file in the working directory,
+     * which is generated beforehand by running {@link #main}.
+     *
+     * @param size Size of the board
+     * @param streak Number of marks in a row needed to win
+     * @return The table
+     * @throws IllegalStateException if the table file has not been generated
+     */
+    public static synchronized Tablebase forConfig(int size, int streak){
+        String name = String.format(FILE_FORMAT, size, size, streak);
+        Tablebase table = CACHE.get(name);
+        if(table == null){
+            try {
+                Path file = Paths.get(name);
+                if(!Files.exists(file)){
+                    throw new IllegalStateException(String.format(ERROR_MISSING, name, size, streak));
+                }
+                table = load(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            CACHE.put(name, table);
+        }
+        return table;
+    }
+
+    /**
+     * Maps a table file into memory.
+     *
+     * @param file The table file
+     * @return The table
+     * @throws IOException if the file cannot be read or is not a table
+     */
+    public static Tablebase load(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if(buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC){
+                throw new IOException(ERROR_FORMAT);
+            }
+            int size = buffer.getInt(Integer.BYTES);
+            int streak = buffer.getInt(2 * Integer.BYTES);
+            return new Tablebase(size, streak, buffer.slice(HEADER_BYTES, buffer.limit() - HEADER_BYTES));
+        }
+    }
+
+    /**
+     * Solves every position reachable from the empty board and writes the table.
+     * The table is written to a temporary file first and then moved into place,
+     * so a partially written table is never loaded.
+     *
+     * @param size Size of the board
+     * @param streak Number of marks in a row needed to win
+     * @param file The table file
+     * @return The outcome of the empty board for X (win, tie or loss)
+     * @throws IOException if the file cannot be written
+     */
+    public static int generate(int size, int streak, Path file) throws IOException {
+        int cells = size * size;
+        if(cells > MAX_CELLS){
+            throw new IllegalArgumentException(ERROR_SIZE);
+        }
+        int positions = 1;
+        for(int i = 0; i < cells; i++){
+            positions *= BASE;
+        }
+        ByteBuffer data = ByteBuffer.allocate(HEADER_BYTES + positions);
+        data.putInt(MAGIC).putInt(size).putInt(streak);
+        Tablebase table = new Tablebase(size, streak, data.slice(HEADER_BYTES, positions));
+        Solver solver = new Solver(table, positions);
+        int score = solver.solve(new int[cells], cells, Mark.X.ordinal());
+        Path temp = Paths.get(file + TEMP_SUFFIX);
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            data.rewind();
+            while(data.hasRemaining()){
+                channel.write(data);
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        return outcomeOf(score);
+    }
+
+    /**
+     * Returns the size of the board this table was solved for.
+     *
+     * @return The width/height of the board
+     */
+    public int getSize(){
+        return this.size;
+    }
+
+    /**
+     * Returns the win streak this table was solved for.
+     *
+     * @return Number of marks in a row needed to win
+     */
+    public int getStreak(){
+        return this.streak;
+    }
+
+    /**
+     * Looks up the best move of a position.
+     *
+     * @param board The board, with the side to move about to play
+     * @return The best cell (row * size + col), or -1 if the position is not in the table
+     */
+    public int getBestMove(Board board){
+        int cells = this.size * this.size;
+        long best = Long.MAX_VALUE;
+        for(int s = 0; s < Symmetry.COUNT; s++){
+            int index = 0;
+            for(int cell = 0; cell < cells; cell++){
+                index += board.getMark(cell / this.size, cell % this.size).ordinal() * this.powers[s * cells + cell];
+            }
+            best = Math.min(best, ((long) index << SYMMETRY_BITS) | s);
+        }
+        int entry = this.entries.get((int) (best >>> SYMMETRY_BITS)) & 0xFF;
+        if(entry == 0){
+            return -1;
+        }
+        int symmetryUsed = (int) (best & (Symmetry.COUNT - 1));
+        return this.symmetry.apply(this.symmetry.invert(symmetryUsed), (entry >>> OUTCOME_BITS) - 1);
+    }
+
+    /**
+     * Converts a solver score to an outcome.
+     *
+     * @param score Score for the side to move
+     * @return The outcome (win, tie or loss)
+     */
+    private static int outcomeOf(int score){
+        return score > 0 ? WIN : score == 0 ? TIE : LOSS;
+    }
+
+    /**
+     * Returns a readable name of an outcome.
+     *
+     * @param outcome The outcome
+     * @return "win", "tie" or "loss"
+     */
+    private static String outcomeName(int outcome){
+        return switch (outcome) {
+            case WIN -> "win";
+            case TIE -> "tie";
+            default -> "loss";
+        };
+    }
+
+    /**
+     * Negamax solver over canonical positions. A score is positive when the
+     * side to move wins, and faster wins and slower losses score higher, so
+     * the stored moves win as quickly as possible.
+     *
+     * Every child of every position is solved, even after an immediate win
+     * was found, so positions that are only reached when a player skips a win
+     * are in the table as well.
+     */
+    private static class Solver {
+        private final Tablebase table;
+        private final byte[] scores;     // Solved score + SCORE_OFFSET per canonical index, 0 if unsolved
+
+        /**
+         * Creates a solver writing into a table.
+         *
+         * @param table The table to fill
+         * @param positions Number of position indices
+         */
+        Solver(Tablebase table, int positions){
+            this.table = table;
+            this.scores = new byte[positions];
+        }
+
+        /**
+         * Solves a position that is not over.
+         *
+         * @param cells Mark ordinal of every cell, restored before returning
+         * @param empty Number of empty cells
+         * @param toMove Mark ordinal of the side to move
+         * @return Score for the side to move
+         */
+        int solve(int[] cells, int empty, int toMove){
+            int numCells = cells.length;
+            int canonical = Integer.MAX_VALUE;
+            int symmetryUsed = 0;
+            for(int s = 0; s < Symmetry.COUNT; s++){
+                int index = 0;
+                for(int cell = 0; cell < numCells; cell++){
+                    index += cells[cell] * table.powers[s * numCells + cell];
+                }
+                if(index < canonical){
+                    canonical = index;
+                    symmetryUsed = s;
+                }
+            }
+            if(scores[canonical] != 0){
+                return scores[canonical] - SCORE_OFFSET;
+            }
+            int bestScore = Integer.MIN_VALUE;
+            int bestMove = -1;
+            for(int cell = 0; cell < numCells; cell++){
+                if(cells[cell] != 0){
+                    continue;
+                }
+                cells[cell] = toMove;
+                int score;
+                if(isWin(cells, cell, toMove)){
+                    score = empty;
+                } else if(empty == 1){
+                    score = 0;
+                } else {
+                    score = -solve(cells, empty - 1, BASE - toMove);
+                }
+                cells[cell] = 0;
+                if(score > bestScore){
+                    bestScore = score;
+                    bestMove = cell;
+                }
+            }
+            scores[canonical] = (byte) (bestScore + SCORE_OFFSET);
+            int move = table.symmetry.apply(symmetryUsed, bestMove);
+            table.entries.put(canonical, (byte) ((move + 1) << OUTCOME_BITS | outcomeOf(bestScore)));
+            return bestScore;
+        }
+
+        /**
+         * Checks whether the mark just placed on a cell completed a streak.
+         *
+         * @param cells Mark ordinal of every cell
+         * @param cell The cell of the placed mark
+         * @param mark Mark ordinal of the placed mark
+         * @return true if the placed mark won
+         */
+        private boolean isWin(int[] cells, int cell, int mark){
+            int size = table.size;
+            int row = cell / size;
+            int col = cell % size;
+            for(int[] direction : DIRECTIONS){
+                int count = 1;
+                for(int sign = -1; sign <= 1; sign += 2){
+                    int r = row + sign * direction[0];
+                    int c = col + sign * direction[1];
+                    while(0 <= r && r < size && 0 <= c && c < size && cells[r * size + c] == mark){
+                        count++;
+                        r += sign * direction[0];
+                        c += sign * direction[1];
+                    }
+                }
+                if(count >= table.streak){
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Main entry point for generating a table file.
+     * Expected arguments:
+     * args[0] - Board size
+     * args[1] - Win streak
+     * args[2] - Output file (optional, defaults to tablebase-SIZExSIZE-STREAK.bin)
+     *
+     * @param args Command line arguments as described above
+     * @throws IOException if the file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        int size = Integer.parseInt(args[0]);
+        int streak = Integer.parseInt(args[1]);
+        Path file = Paths.get(args.length > 2 ? args[2] : String.format(FILE_FORMAT, size, size, streak));
+        System.out.printf(DONE_FORMAT, size, size, streak, outcomeName(generate(size, streak, file)));
+    }
+}
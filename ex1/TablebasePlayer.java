@@ -0,0 +1,57 @@
+/**
+ * A perfect player for small boards. Every move is a single lookup in the
+ * {@link Tablebase} of the board configuration, whose file must have been
+ * generated with {@link Tablebase#main} before the first game.
+ *
+ * Rectangular boards and boards with more cells than a table supports are
+ * played by a {@link GeniusPlayer} instead.
+ *
+ * @author Amit Moses
+ */
+public class TablebasePlayer implements Player, Seedable {
+    private int streak;                             // Number of marks in a row needed to win
+    private Tablebase table;                        // Table of the last played board size
+    private GeniusPlayer fallback = new GeniusPlayer(); // Player for boards without a table
+
+    /**
+     * Creates a new TablebasePlayer.
+     *
+     * @param streak Number of marks in a row needed to win
+     */
+    public TablebasePlayer(int streak){
+        this.streak = streak;
+    }
+
+    /**
+     * Restarts the random number generator of the fallback player.
+     *
+     * @param seed The seed
+     */
+    @Override
+    public void setSeed(long seed){
+        this.fallback.setSeed(seed);
+    }
+
+    /**
+     * Plays the move stored in the table, or the fallback player's move when
+     * the board has no table.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     * @throws IllegalStateException if the table file of the board has not been generated
+     */
+    @Override
+    public void playTurn(Board board, Mark mark){
+        int size = board.getSize();
+        if(board.getRows() == board.getCols() && size * size <= Tablebase.MAX_CELLS){
+            if(this.table == null || this.table.getSize() != size){
+                this.table = Tablebase.forConfig(size, this.streak);
+            }
+            int cell = this.table.getBestMove(board);
+            if(cell >= 0 && board.putMark(mark, cell / size, cell % size)){
+                return;
+            }
+        }
+        this.fallback.playTurn(board, mark);
+    }
+}
@@ -0,0 +1,624 @@
+import java.util.Arrays;
+
+/**
+ * Implements a gomoku-style player that searches threat space: only forcing
+ * moves are explored, so long winning sequences are found at a fraction of
+ * the cost of a full-width search.
+ *
+ * Threats (for a win streak of k):
+ * - four: a move after which the player wins on the next move (one winning cell)
+ * - double four: a move after which the player has two winning cells, which
+ *   cannot both be blocked
+ * - three: a move after which the player has a cell that would make a double four
+ *
+ * Strategy details:
+ * 1. Wins immediately, or blocks an immediate win of the opponent
+ * 2. Searches a forced win by fours and threes: a four forces the single block,
+ *   a three must be won against every defense on its lines. Lines in which the
+ *   defender gets a four of its own are given up, so found wins are sound
+ * 3. Searches the same for the opponent, and plays a move that refutes the
+ *    opponent's forced win if one exists
+ * 4. Otherwise scores the cells near the marks by the open windows of k cells
+ *    through them, for both players, and plays the best one
+ *
+ * The search gives up when the per-move time budget runs out, so the player
+ * keeps a tight time limit on any board size. As an {@link AnytimePlayer},
+ * it shares out the time until the game's deadline instead.
+ *
+ * @author Amit Moses
+ */
+public class ThreatSpacePlayer implements Player, AnytimePlayer {
+    /** Default time budget for a single move, in milliseconds */
+    private static final long DEFAULT_BUDGET_MILLIS = 50;
+
+    /** Maximum number of attacker moves in a forced sequence */
+    private static final int MAX_DEPTH = 12;
+
+    /** Maximum number of threes in a forced sequence */
+    private static final int MAX_THREES = 2;
+
+    /** Candidate cells are at most this far (in rows and columns) from a mark */
+    private static final int NEIGHBOURHOOD = 2;
+
+    /** Number of opponent-threat refutations tried before giving up */
+    private static final int MAX_REFUTATIONS = 24;
+
+    /** The clock is checked once every this many nodes (plus one) */
+    private static final int CHECK_TIME_MASK = 255;
+
+    /** Base of the exponential window scores */
+    private static final int WINDOW_BASE = 8;
+
+    /** Marks of a window that count towards its score, so the scores of long streaks fit a long */
+    private static final int MAX_WINDOW_MARKS = 16;
+
+    /** Row and column steps of the four line directions */
+    private static final int[][] DIRECTIONS = {{0, 1}, {1, 0}, {1, 1}, {1, -1}};
+
+    /** Searches per move: own fours, opponent fours, own threes, opponent threes */
+    private static final int SEARCH_PHASES = 4;
+
+    /** Number of marks in a row needed to win */
+    private int streak;
+
+    /** Time budget for a single move, in nanoseconds */
+    private long budgetNanos;
+
+    // Search state of the current move
+    private int rows;
+    private int cols;
+    private int[] cells;
+    private Deadline moveDeadline;
+    private long deadline;
+    private long nodes;
+    private boolean aborted;
+    private int[] winCells = new int[2];
+    private int[] variation = new int[2 * MAX_DEPTH];
+    private int winDepth;
+
+    /**
+     * Creates a new ThreatSpacePlayer with the default time budget.
+     *
+     * @param streak Number of marks in a row needed to win
+     */
+    public ThreatSpacePlayer(int streak){
+        this(streak, DEFAULT_BUDGET_MILLIS);
+    }
+
+    /**
+     * Creates a new ThreatSpacePlayer.
+     *
+     * @param streak Number of marks in a row needed to win
+     * @param budgetMillis Time budget for a single move, in milliseconds
+     */
+    public ThreatSpacePlayer(int streak, long budgetMillis){
+        this.streak = streak;
+        this.budgetNanos = budgetMillis * 1_000_000L;
+    }
+
+    /**
+     * Executes the player's turn following the strategy described above.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     */
+    public void playTurn(Board board, Mark mark) {
+        int move = chooseMove(board, mark, new Deadline(this.budgetNanos));
+        board.putMark(mark, move / cols, move % cols);
+    }
+
+    /**
+     * Chooses a move following the strategy described above, searching until
+     * the deadline at the latest.
+     *
+     * @param board The game board
+     * @param mark The player's mark (X or O)
+     * @param deadline The deadline of the move
+     * @return The chosen cell, as row * columns + column
+     */
+    @Override
+    public int chooseMove(Board board, Mark mark, Deadline deadline) {
+        loadBoard(board);
+        this.moveDeadline = deadline;
+        return chooseMove(mark.ordinal());
+    }
+
+    /**
+     * Chooses a move for a player on the loaded board. The forced-win
+     * searches run cheapest first (fours only, then fours and threes), each
+     * with an equal share of the time left; refuting an opponent's forced
+     * win gets one more share.
+     *
+     * @param own Mark ordinal of the player
+     * @return The cell index of the chosen move
+     */
+    private int chooseMove(int own) {
+        int opponent = 3 - own;
+        int win = findImmediateWin(own);
+        if(win >= 0){
+            return win;
+        }
+        int block = findImmediateWin(opponent);
+        if(block >= 0){
+            return block;
+        }
+        long start = System.nanoTime();
+        long share = this.moveDeadline.remainingNanos() / (SEARCH_PHASES + 1);
+        for(int phase = 0; phase < SEARCH_PHASES; phase++){
+            int threes = phase < 2 ? 0 : MAX_THREES;
+            startPhase(start + share * (phase + 1));
+            if(phase % 2 == 0){
+                int forced = findForcedWin(own, threes);
+                if(forced >= 0){
+                    return forced;
+                }
+            } else {
+                int threat = findForcedWin(opponent, threes);
+                if(threat >= 0){
+                    startPhase(System.nanoTime() + share);
+                    return refute(own, threat, threes);
+                }
+            }
+        }
+        return bestByWindows(own);
+    }
+
+    /**
+     * Starts a search phase that must end at the given time.
+     *
+     * @param phaseDeadline Value of System.nanoTime() at which the phase ends
+     */
+    private void startPhase(long phaseDeadline) {
+        this.deadline = phaseDeadline;
+        this.nodes = 0;
+        this.aborted = false;
+    }
+
+    /**
+     * Finds a cell on which a player wins immediately.
+     *
+     * @param player Mark ordinal of the player
+     * @return The winning cell, or -1 if there is none
+     */
+    private int findImmediateWin(int player) {
+        for(int cell = 0; cell < cells.length; cell++){
+            if(cells[cell] == 0 && wins(cell, player)){
+                return cell;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Searches a forced win for a player, as if the player were to move.
+     * The search deepens one attacker move at a time, so the shortest wins
+     * are found first and a search cut off by the clock still covers the
+     * short sequences.
+     *
+     * @param attacker Mark ordinal of the player
+     * @param threes Number of threes the sequence may use
+     * @return The first move of a forced win, or -1 if none was found in time
+     */
+    private int findForcedWin(int attacker, int threes) {
+        int[] result = {-1};
+        for(winDepth = 1; winDepth <= MAX_DEPTH && !aborted; winDepth++){
+            Arrays.fill(variation, -1);
+            if(attack(attacker, winDepth, threes, result)){
+                return result[0];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Picks a move that refutes a forced win of the opponent: the first
+     * candidate after which the opponent has no forced win anymore, or the
+     * opponent's winning move itself. The candidates are the cells of the
+     * opponent's winning sequence, then the best cells by window score, and
+     * each is checked against sequences as long as the one found.
+     *
+     * @param own Mark ordinal of the player
+     * @param threat First move of the opponent's forced win
+     * @param threes Number of threes the opponent's win uses at most
+     * @return The cell index of the chosen move
+     */
+    private int refute(int own, int threat, int threes) {
+        int opponent = 3 - own;
+        int[] candidates = new int[variation.length + MAX_REFUTATIONS];
+        int count = 0;
+        for(int cell : variation){
+            if(cell >= 0){
+                candidates[count++] = cell;
+            }
+        }
+        for(int cell : rankCells(own, MAX_REFUTATIONS)){
+            candidates[count++] = cell;
+        }
+        for(int i = 0; i < count; i++){
+            int cell = candidates[i];
+            if(cells[cell] != 0){
+                continue;
+            }
+            cells[cell] = own;
+            boolean stillLost = attack(opponent, winDepth, threes, null);
+            cells[cell] = 0;
+            if(aborted){
+                return threat;
+            }
+            if(!stillLost){
+                return cell;
+            }
+        }
+        return threat;
+    }
+
+    /**
+     * Searches threat space for a forced win of the attacker, with the
+     * attacker to move and no immediate win for the defender.
+     *
+     * @param attacker Mark ordinal of the attacker
+     * @param depth Remaining attacker moves
+     * @param threes Remaining threes that may be used
+     * @param result Receives the first move of the win at the root
+     * @return true if the attacker has a forced win
+     */
+    private boolean attack(int attacker, int depth, int threes, int[] result) {
+        int defender = 3 - attacker;
+        boolean useThrees = threes > 0 && depth > 1 && !hasFourMove(defender);
+        int needed = Math.max(1, useThrees ? streak - 3 : streak - 2);
+        for(int move = 0; move < cells.length; move++){
+            if((++nodes & CHECK_TIME_MASK) == 0 && (System.nanoTime() > deadline || moveDeadline.isExpired())){
+                aborted = true;
+            }
+            if(aborted){
+                return false;
+            }
+            int marks = cells[move] == 0 ? maxWindowCount(move, attacker) : 0;
+            if(marks < needed){
+                continue;
+            }
+            cells[move] = attacker;
+            boolean won = false;
+            int block = -1;
+            int count = marks >= streak - 2 ? collectWinCells(move, attacker) : 0;
+            if(count >= 2){
+                won = true;
+            } else if(count == 1){
+                block = winCells[0];
+                cells[block] = defender;
+                won = depth > 1 && collectWinCells(block, defender) == 0
+                        && attack(attacker, depth - 1, threes, null);
+                cells[block] = 0;
+            } else if(useThrees && isThree(move, attacker)){
+                won = beatsEveryDefense(attacker, move, depth - 1, threes - 1);
+            }
+            cells[move] = 0;
+            if(won){
+                variation[2 * (depth - 1)] = move;
+                variation[2 * (depth - 1) + 1] = block;
+                if(result != null){
+                    result[0] = move;
+                }
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the attacker wins against every defense of a three.
+     * Defenses are the empty cells on the lines through the three; a cell
+     * after which the three still stands is no defense, as the attacker
+     * then makes a double four, so only real defenses are searched.
+     *
+     * @param attacker Mark ordinal of the attacker
+     * @param three Cell of the move that made the three
+     * @param depth Remaining attacker moves
+     * @param threes Remaining threes that may be used
+     * @return true if the attacker wins against every defense
+     */
+    private boolean beatsEveryDefense(int attacker, int three, int depth, int threes) {
+        int defender = 3 - attacker;
+        for(int[] direction : DIRECTIONS){
+            for(int distance = -(streak - 1); distance < streak; distance++){
+                int defense = lineCell(three, direction, distance);
+                if(defense < 0 || cells[defense] != 0){
+                    continue;
+                }
+                cells[defense] = defender;
+                boolean won = !isThree(three, attacker) ? attack(attacker, depth, threes, null)
+                        : collectWinCells(defense, defender) == 0;
+                cells[defense] = 0;
+                if(!won){
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a player has any move that makes a four.
+     *
+     * @param player Mark ordinal of the player
+     * @return true if some move gives the player a winning cell
+     */
+    private boolean hasFourMove(int player) {
+        for(int cell = 0; cell < cells.length; cell++){
+            if(cells[cell] != 0 || maxWindowCount(cell, player) < streak - 2){
+                continue;
+            }
+            cells[cell] = player;
+            int count = collectWinCells(cell, player);
+            cells[cell] = 0;
+            if(count > 0){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether a move made a three: a cell on its lines that would then
+     * give the player two winning cells.
+     *
+     * @param move Cell of the move, already marked
+     * @param player Mark ordinal of the player
+     * @return true if the move made a three
+     */
+    private boolean isThree(int move, int player) {
+        for(int[] direction : DIRECTIONS){
+            for(int distance = -(streak - 1); distance < streak; distance++){
+                int cell = lineCell(move, direction, distance);
+                if(cell < 0 || cells[cell] != 0 || maxWindowCount(cell, player) < streak - 2){
+                    continue;
+                }
+                cells[cell] = player;
+                int count = collectWinCells(cell, player);
+                cells[cell] = 0;
+                if(count >= 2){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the winning cells of a player on the lines through a cell,
+     * stopping at two. The first winning cell is stored in winCells[0].
+     *
+     * @param cell The cell the lines pass through
+     * @param player Mark ordinal of the player
+     * @return The number of winning cells found, at most 2
+     */
+    private int collectWinCells(int cell, int player) {
+        int count = 0;
+        for(int[] direction : DIRECTIONS){
+            for(int distance = -(streak - 1); distance < streak; distance++){
+                int other = lineCell(cell, direction, distance);
+                if(other >= 0 && cells[other] == 0 && wins(other, player)){
+                    winCells[count++] = other;
+                    if(count == 2){
+                        return count;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether marking an empty cell would complete a streak.
+     *
+     * @param cell An empty cell
+     * @param player Mark ordinal of the player
+     * @return true if the player would win on the cell
+     */
+    private boolean wins(int cell, int player) {
+        for(int[] direction : DIRECTIONS){
+            if(run(cell, direction, 1, player) + run(cell, direction, -1, player) + 1 >= streak){
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the marks of a player next to a cell in one direction.
+     *
+     * @param cell The cell to start from (not counted)
+     * @param direction The line direction
+     * @param sign 1 to walk along the direction, -1 to walk against it
+     * @param player Mark ordinal of the player
+     * @return Length of the run
+     */
+    private int run(int cell, int[] direction, int sign, int player) {
+        int count = 0;
+        int row = cell / cols + sign * direction[0];
+        int col = cell % cols + sign * direction[1];
+        while(isValidCord(row, col) && cells[row * cols + col] == player){
+            count++;
+            row += sign * direction[0];
+            col += sign * direction[1];
+        }
+        return count;
+    }
+
+    /**
+     * Returns the cell at a distance from a cell along a line.
+     *
+     * @param cell The cell the line passes through
+     * @param direction The line direction
+     * @param distance Signed distance along the line
+     * @return The cell index, or -1 if it is off the board
+     */
+    private int lineCell(int cell, int[] direction, int distance) {
+        int row = cell / cols + distance * direction[0];
+        int col = cell % cols + distance * direction[1];
+        return isValidCord(row, col) ? row * cols + col : -1;
+    }
+
+    /**
+     * Finds the most marks of a player in a window of k cells through a cell
+     * that holds no marks of the other player. A move can only make a four
+     * in a window that already holds k - 2 marks, and a three in one that
+     * holds k - 3, so this cheaply filters the candidate moves.
+     *
+     * @param cell The cell (not counted)
+     * @param player Mark ordinal of the player
+     * @return The largest number of marks, or -1 if no window is open
+     */
+    private int maxWindowCount(int cell, int player) {
+        int best = -1;
+        for(int[] direction : DIRECTIONS){
+            for(int start = -(streak - 1); start <= 0; start++){
+                int count = 0;
+                for(int k = start; k < start + streak && count >= 0; k++){
+                    int other = k == 0 ? cell : lineCell(cell, direction, k);
+                    if(other < 0 || cells[other] == 3 - player){
+                        count = -1;
+                    } else if(k != 0 && cells[other] == player){
+                        count++;
+                    }
+                }
+                best = Math.max(best, count);
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Checks whether a cell is close to a mark of a player.
+     *
+     * @param cell The cell to check
+     * @param player Mark ordinal of the player
+     * @return true if a mark of the player is within the neighbourhood
+     */
+    private boolean isNear(int cell, int player) {
+        int row = cell / cols;
+        int col = cell % cols;
+        for(int r = row - NEIGHBOURHOOD; r <= row + NEIGHBOURHOOD; r++){
+            for(int c = col - NEIGHBOURHOOD; c <= col + NEIGHBOURHOOD; c++){
+                if(isValidCord(r, c) && cells[r * cols + c] == player){
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks the cell with the best window score, or the centre of an empty
+     * board.
+     *
+     * @param own Mark ordinal of the player
+     * @return The cell index of the best cell
+     */
+    private int bestByWindows(int own) {
+        int[] ranked = rankCells(own, 1);
+        if(ranked.length > 0){
+            return ranked[0];
+        }
+        int centre = (rows / 2) * cols + cols / 2;
+        for(int cell = 0; cells[centre] != 0 && cell < cells.length; cell++){
+            centre = cell;
+        }
+        return centre;
+    }
+
+    /**
+     * Ranks the empty cells near the marks by window score: every window of
+     * k cells through the cell that holds marks of only one player scores
+     * WINDOW_BASE to the number of those marks, own windows counting double.
+     * Cells of equal score are ranked by index.
+     *
+     * @param own Mark ordinal of the player
+     * @param limit Maximum number of cells to return
+     * @return The best cells, best first
+     */
+    private int[] rankCells(int own, int limit) {
+        int[] ranked = new int[limit];
+        long[] scores = new long[limit];
+        int count = 0;
+        for(int cell = 0; cell < cells.length; cell++){
+            if(cells[cell] != 0 || !(isNear(cell, own) || isNear(cell, 3 - own))){
+                continue;
+            }
+            long score = windowScore(cell, own) * 2 + windowScore(cell, 3 - own);
+            if(count == limit && score <= scores[limit - 1]){
+                continue;
+            }
+            // insertion into the kept cells, the list is short
+            int j = count < limit ? count++ : limit - 1;
+            while(j > 0 && scores[j - 1] < score){
+                ranked[j] = ranked[j - 1];
+                scores[j] = scores[j - 1];
+                j--;
+            }
+            ranked[j] = cell;
+            scores[j] = score;
+        }
+        return count == limit ? ranked : Arrays.copyOf(ranked, count);
+    }
+
+    /**
+     * Scores the windows through a cell that only hold marks of a player.
+     *
+     * @param cell The cell
+     * @param player Mark ordinal of the player
+     * @return The window score
+     */
+    private long windowScore(int cell, int player) {
+        long score = 0;
+        for(int[] direction : DIRECTIONS){
+            for(int start = -(streak - 1); start <= 0; start++){
+                int count = 0;
+                boolean open = true;
+                for(int k = start; k < start + streak && open; k++){
+                    int other = lineCell(cell, direction, k);
+                    if(other < 0 || cells[other] == 3 - player){
+                        open = false;
+                    } else if(cells[other] == player){
+                        count++;
+                    }
+                }
+                if(open){
+                    long value = 1;
+                    for(int i = 0; i < Math.min(count, MAX_WINDOW_MARKS); i++){
+                        value *= WINDOW_BASE;
+                    }
+                    score += value;
+                }
+            }
+        }
+        return score;
+    }
+
+    /**
+     * Copies the board into the search array.
+     *
+     * @param board The game board
+     */
+    private void loadBoard(Board board) {
+        if(cells == null || board.getRows() != rows || board.getCols() != cols){
+            this.rows = board.getRows();
+            this.cols = board.getCols();
+            this.cells = new int[rows * cols];
+        }
+        for(int i = 0; i < cells.length; i++){
+            cells[i] = board.getMark(i / cols, i % cols).ordinal();
+        }
+    }
+
+    /**
+     * Validates if the given coordinates are within the board boundaries.
+     *
+     * @param row Row coordinate to validate
+     * @param col Column coordinate to validate
+     * @return true if coordinates are valid, false otherwise
+     */
+    private boolean isValidCord(int row, int col) {
+        return 0 <= row && row < rows && 0 <= col && col < cols;
+    }
+}
@@ -1,4 +1,13 @@
 // Tournament.java
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+
 /**
  * Manages a tournament of multiple games between two players.
  * Tracks scores and displays final results.
@@ -11,13 +20,23 @@ public class Tournament {
     private static final String RESULT_HEADLINE = "######### Results #########";
     private static final String RESULT_FORMAT = "Player %d, %s won: %d rounds\n";
     private static final String RESULT_TIE = "Ties: %d";
+    private static final String RESULT_OVERRUNS = "Moves over the %d ms budget: %d\n";
 
     private static final int NUM_PLAYERS = 2; // Number of players in the tournament
+    private static final String DEFAULT_BOARD = "array"; // Board type used when none is given
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L; // Seed step between rounds
+    private static final String NO_FILE = "-"; // Placeholder for an optional file argument
     // Tournament state
     private Player[] players;       // The two players participating in the tournament
     private int[] result;           // Array storing win counts [player1 wins, player2 wins]
     private int rounds;             // Total number of rounds to play
     private Renderer renderer;      // Renderer for displaying the game board
+    private String boardType;       // Board representation used for every round
+    private boolean seeded;         // Whether players are reseeded before every round
+    private long seed;              // Tournament seed the round seeds are derived from
+    private DataOutputStream moveLogOut; // Stream the rounds are logged to, or null
+    private String metricsFile;     // File the metrics are exported to, or null
+    private long moveBudgetMillis;  // Time budget for a single move, or 0 for none
 
     /**
      * Creates a new tournament with specified number of rounds and players.
@@ -28,10 +47,77 @@ public class Tournament {
      * @param player2 Second player in the tournament
      */
     public Tournament(int rounds, Renderer renderer, Player player1, Player player2){
+        this(rounds, renderer, player1, player2, DEFAULT_BOARD);
+    }
+
+    /**
+     * Creates a new tournament that plays every round on the given board type.
+     *
+     * @param rounds Number of rounds to play in the tournament
+     * @param renderer Renderer to use for displaying the game boards
+     * @param player1 First player in the tournament
+     * @param player2 Second player in the tournament
+     * @param boardType Board type as accepted by {@link BoardFactory#buildBoard}
+     */
+    public Tournament(int rounds, Renderer renderer, Player player1, Player player2, String boardType){
         this.rounds = rounds;
         this.result = new int[]{0, 0};
         this.renderer = renderer;
         this.players = new Player[]{player1, player2};
+        this.boardType = boardType;
+    }
+
+    /**
+     * Creates a new reproducible tournament. Before every round, each player
+     * that is {@link Seedable} is reseeded from a seed derived from the
+     * tournament seed and the round index.
+     *
+     * @param rounds Number of rounds to play in the tournament
+     * @param renderer Renderer to use for displaying the game boards
+     * @param player1 First player in the tournament
+     * @param player2 Second player in the tournament
+     * @param boardType Board type as accepted by {@link BoardFactory#buildBoard}
+     * @param seed The tournament seed
+     */
+    public Tournament(int rounds, Renderer renderer, Player player1, Player player2, String boardType, long seed){
+        this(rounds, renderer, player1, player2, boardType);
+        this.seeded = true;
+        this.seed = seed;
+    }
+
+    /**
+     * Logs the moves of every round to a stream, so rounds can be replayed
+     * with {@link MoveLog}.
+     *
+     * @param moveLogOut The stream to log to, or null to stop logging
+     */
+    public void setMoveLogOutput(DataOutputStream moveLogOut){
+        this.moveLogOut = moveLogOut;
+    }
+
+    /**
+     * Measures the move latencies of both players and the throughput of the
+     * tournament, and exports them when the tournament ends.
+     *
+     * @param metricsFile File to export to, as JSON if it ends with ".json" and as CSV otherwise
+     */
+    public void setMetricsOutput(String metricsFile){
+        this.metricsFile = metricsFile;
+        for(int i = 0; i < NUM_PLAYERS; i++){
+            if(!(this.players[i] instanceof InstrumentedPlayer)){
+                this.players[i] = InstrumentedPlayer.wrap(this.players[i]);
+            }
+        }
+    }
+
+    /**
+     * Gives every move a time budget, see {@link Game#setMoveBudget}. The
+     * number of moves that ran over it is displayed with the results.
+     *
+     * @param budgetMillis Time budget for a single move in milliseconds, or 0 for no budget
+     */
+    public void setMoveBudget(long budgetMillis){
+        this.moveBudgetMillis = budgetMillis;
     }
 
     /**
@@ -45,15 +131,111 @@ public class Tournament {
      * @param playerName2 The name of the second player.
      */
     public void playTournament(int size, int winStreak, String playerName1, String playerName2){
+        Game game = new Game(this.players[0], this.players[1],
+                new BoardFactory().buildBoard(this.boardType, size), winStreak, this.renderer);
+        game.setMoveBudget(this.moveBudgetMillis);
+        long start = System.nanoTime();
         for(int i = 0; i < this.rounds; i++){
-            Game game = new Game(this.players[i % NUM_PLAYERS], this.players[(i + 1) % NUM_PLAYERS],
-                    size, winStreak, this.renderer);
-            int vic = game.run().ordinal();
-            if(0 < vic){
-                this.result[(i + vic - 1) % NUM_PLAYERS]++;
+            long roundSeed = seedFor(this.seed, i);
+            if(this.seeded){
+                reseed(this.players, roundSeed);
             }
+            MoveLog log = this.moveLogOut != null ? new MoveLog(size, winStreak, roundSeed) : null;
+            int winner = playRound(this.players, game, i, log);
+            if(0 <= winner){
+                this.result[winner]++;
+            }
+            if(log != null){
+                writeLog(log);
+            }
+        }
+        this.renderer.flush();
+        long elapsed = System.nanoTime() - start;
+        String[] names = new String[]{playerName1, playerName2};
+        displayResults(names, this.result, this.rounds);
+        displayOverruns(this.moveBudgetMillis, game.getOverruns());
+        if(this.metricsFile != null){
+            writeMetrics(names, elapsed);
+        }
+    }
+
+    /**
+     * Plays a single round of the tournament. The first player plays X in even
+     * rounds and O in odd rounds, so the winner depends only on the round index
+     * and the game itself, regardless of which thread plays the round.
+     * The game is reset in place, so a worker reuses one game and board for
+     * all of its rounds.
+     *
+     * @param players The two players [player1, player2]
+     * @param game The game to play the round with, reset before the round
+     * @param round Index of the round in the tournament
+     * @param log Log to record the moves to, or null
+     * @return Index of the winning player, or -1 for a tie
+     */
+    static int playRound(Player[] players, Game game, int round, MoveLog log){
+        game.reset(players[round % NUM_PLAYERS], players[(round + 1) % NUM_PLAYERS]);
+        game.setMoveLog(log);
+        int vic = game.run().ordinal();
+        return 0 < vic ? (round + vic - 1) % NUM_PLAYERS : -1;
+    }
+
+    /**
+     * Derives an independent seed from a seed and an index. The result is the
+     * index-th value of the SplittableRandom stream of the seed, so seeds for
+     * any round can be computed directly, in any order, on any thread.
+     *
+     * @param seed The seed to derive from
+     * @param index The index of the derived seed
+     * @return The derived seed
+     */
+    static long seedFor(long seed, long index){
+        return new SplittableRandom(seed + GOLDEN_GAMMA * index).nextLong();
+    }
+
+    /**
+     * Reseeds every {@link Seedable} player for a round. Each player gets its
+     * own seed, derived from the round seed and the player's index.
+     *
+     * @param players The two players [player1, player2]
+     * @param roundSeed The seed of the round
+     */
+    static void reseed(Player[] players, long roundSeed){
+        for(int i = 0; i < NUM_PLAYERS; i++){
+            if(players[i] instanceof Seedable seedable){
+                seedable.setSeed(seedFor(roundSeed, i + 1));
+            }
+        }
+    }
+
+    /**
+     * Writes the log of a round to the move log stream.
+     *
+     * @param log The log of the round
+     */
+    private void writeLog(MoveLog log){
+        try {
+            log.writeTo(this.moveLogOut);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Exports the metrics of the finished tournament.
+     *
+     * @param names Names of the players
+     * @param elapsedNanos Wall-clock time of the tournament
+     */
+    private void writeMetrics(String[] names, long elapsedNanos){
+        InstrumentedPlayer[] instrumented = new InstrumentedPlayer[NUM_PLAYERS];
+        for(int i = 0; i < NUM_PLAYERS; i++){
+            instrumented[i] = (InstrumentedPlayer) this.players[i];
+        }
+        try {
+            new TournamentMetrics(names, instrumented, this.rounds, elapsedNanos).writeTo(this.metricsFile);
+        } catch (FileNotFoundException e) {
+            throw new UncheckedIOException(e);
         }
-        this.displayResults(new String[]{playerName1, playerName2}, this.rounds);
     }
 
     /**
@@ -61,16 +243,29 @@ public class Tournament {
      * and how many rounds ended in ties.
      *
      * @param names Array of player names [player1 name, player2 name]
+     * @param result Array of win counts [player1 wins, player2 wins]
      * @param rounds Total number of rounds played
      */
-    private void displayResults(String[] names, int rounds) {
+    static void displayResults(String[] names, int[] result, int rounds) {
         System.out.println(RESULT_HEADLINE);
-        for (int i = 0; i < players.length; i++) {
+        for (int i = 0; i < NUM_PLAYERS; i++) {
             System.out.printf(RESULT_FORMAT, i + 1, names[i], result[i]);
         }
         System.out.println(String.format(RESULT_TIE, rounds - result[0] - result[1]));
     }
 
+    /**
+     * Displays how many moves ran over the move budget, if there is a budget.
+     *
+     * @param budgetMillis Time budget for a single move in milliseconds, or 0 for no budget
+     * @param overruns Number of moves that returned late
+     */
+    static void displayOverruns(long budgetMillis, long overruns) {
+        if(budgetMillis > 0){
+            System.out.printf(RESULT_OVERRUNS, budgetMillis, overruns);
+        }
+    }
+
     /**
      * Main entry point for running a tournament from command line arguments.
      * Expected arguments:
@@ -80,10 +275,17 @@ public class Tournament {
      * args[3] - Renderer type
      * args[4] - Player 1 type
      * args[5] - Player 2 type
+     * args[6] - Board type (optional, defaults to "array")
+     * args[7] - Number of parallel workers (optional, plays sequentially if absent or 0)
+     * args[8] - Tournament seed (optional, rounds are not reproducible if absent)
+     * args[9] - Move log file (optional, sequential mode only, "-" for none)
+     * args[10] - Metrics file, .json or .csv (optional, sequential mode only, "-" for none)
+     * args[11] - Soft time budget for a single move in milliseconds (optional, no budget if absent)
      *
      * @param args Command line arguments as described above
+     * @throws IOException if the move log file cannot be written
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
         PlayerFactory playerFactory = new PlayerFactory();
         RendererFactory rendererFactory = new RendererFactory();
 
@@ -91,11 +293,43 @@ public class Tournament {
         int size = Integer.parseInt(args[1]);
         int winStreak = Integer.parseInt(args[2]);
 
+        String boardType = args.length > 6 ? args[6] : DEFAULT_BOARD;
+        int workers = args.length > 7 ? Integer.parseInt(args[7]) : 0;
+        boolean seeded = args.length > 8;
+        long seed = seeded ? Long.parseLong(args[8]) : 0;
+        long moveBudget = args.length > 11 ? Long.parseLong(args[11]) : 0;
+        if(workers > 0){
+            ForkJoinPool pool = new ForkJoinPool(workers);
+            try {
+                ParallelTournament tournament = seeded ?
+                        new ParallelTournament(rounds, pool, args[4], args[5], boardType, seed) :
+                        new ParallelTournament(rounds, pool, args[4], args[5], boardType);
+                tournament.setMoveBudget(moveBudget);
+                tournament.playTournament(size, winStreak, args[4], args[5]);
+            } finally {
+                pool.shutdown();
+            }
+            return;
+        }
+
         Renderer renderer = rendererFactory.buildRenderer(args[3], size);
-        Player player1 = playerFactory.buildPlayer(args[4]);
-        Player player2 = playerFactory.buildPlayer(args[5]);
+        Player player1 = playerFactory.buildPlayer(args[4], size, winStreak);
+        Player player2 = playerFactory.buildPlayer(args[5], size, winStreak);
 
-        Tournament tournament = new Tournament(rounds, renderer, player1, player2);
+        Tournament tournament = seeded ?
+                new Tournament(rounds, renderer, player1, player2, boardType, seed) :
+                new Tournament(rounds, renderer, player1, player2, boardType);
+        tournament.setMoveBudget(moveBudget);
+        if(args.length > 10 && !args[10].equals(NO_FILE)){
+            tournament.setMetricsOutput(args[10]);
+        }
+        if(args.length > 9 && !args[9].equals(NO_FILE)){
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(args[9])))) {
+                tournament.setMoveLogOutput(out);
+                tournament.playTournament(size, winStreak, args[4], args[5]);
+            }
+            return;
+        }
         tournament.playTournament(size, winStreak, args[4], args[5]);
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
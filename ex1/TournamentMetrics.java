@@ -0,0 +1,128 @@
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Metrics of a finished tournament: the move latencies of both players, per
+ * board size, and the overall throughput in games per second. The metrics can
+ * be exported as JSON or as CSV.
+ *
+ * JSON Structure:
+ * - games, elapsed_ms and games_per_second of the tournament
+ * - players: one object per player and board size with the number of moves,
+ *   the mean, min, max and the 50th, 90th, 99th and 99.9th latency percentiles
+ *
+ * CSV Structure:
+ * - One record per player and board size, with the same fields as the JSON
+ *   player objects followed by the tournament fields
+ *
+ * @author Amit Moses
+ */
+public class TournamentMetrics {
+    // Constants for the export formats
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final String[] PERCENTILE_NAMES = {"p50_ns", "p90_ns", "p99_ns", "p999_ns"};
+    private static final String JSON_SUFFIX = ".json";
+    private static final String CSV_HEADER = "slot,player,board_size,moves,mean_ns,min_ns,%s,max_ns,games,games_per_second";
+    private static final String CSV_PREFIX = "%d,%s,%d,%d,%.1f,%d";
+    private static final String CSV_SUFFIX = ",%d,%d,%.1f";
+    private static final String JSON_HEADER = "{\"games\": %d, \"elapsed_ms\": %.1f, \"games_per_second\": %.1f, \"players\": [";
+    private static final String JSON_PREFIX = "%n  {\"slot\": %d, \"player\": \"%s\", \"board_size\": %d, \"moves\": %d, \"mean_ns\": %.1f, \"min_ns\": %d";
+    private static final String JSON_FIELD = ", \"%s\": %d";
+    private static final String JSON_SUFFIX_FORMAT = ", \"max_ns\": %d}";
+    private static final String JSON_FOOTER = "%n]}%n";
+
+    private String[] names;                 // Names of the players
+    private InstrumentedPlayer[] players;   // The measured players
+    private int games;                      // Number of played games
+    private long elapsedNanos;              // Wall-clock time of the tournament
+
+    /**
+     * Creates the metrics of a tournament.
+     *
+     * @param names Names of the players, by tournament slot
+     * @param players The measured players, by tournament slot
+     * @param games Number of played games
+     * @param elapsedNanos Wall-clock time of the tournament, in nanoseconds
+     */
+    public TournamentMetrics(String[] names, InstrumentedPlayer[] players, int games, long elapsedNanos){
+        this.names = names.clone();
+        this.players = players.clone();
+        this.games = games;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the throughput of the tournament.
+     *
+     * @return Games per second
+     */
+    public double getGamesPerSecond(){
+        return this.elapsedNanos == 0 ? 0 : this.games / (this.elapsedNanos / 1e9);
+    }
+
+    /**
+     * Writes the metrics to a file, as JSON if the file name ends with
+     * ".json" and as CSV otherwise.
+     *
+     * @param file The file name
+     * @throws FileNotFoundException if the file cannot be created
+     */
+    public void writeTo(String file) throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(file)) {
+            if(file.endsWith(JSON_SUFFIX)){
+                writeJson(out);
+            } else {
+                writeCsv(out);
+            }
+        }
+    }
+
+    /**
+     * Writes the metrics as a JSON document.
+     *
+     * @param out The stream to write to
+     */
+    public void writeJson(PrintStream out){
+        out.printf(Locale.ROOT, JSON_HEADER, this.games, this.elapsedNanos / 1e6, getGamesPerSecond());
+        boolean first = true;
+        for(int slot = 0; slot < this.players.length; slot++){
+            for(Map.Entry<Integer, LatencyHistogram> entry : this.players[slot].getHistograms().entrySet()){
+                LatencyHistogram histogram = entry.getValue();
+                if(!first){
+                    out.print(',');
+                }
+                first = false;
+                out.printf(Locale.ROOT, JSON_PREFIX, slot + 1, this.names[slot], entry.getKey(),
+                        histogram.getCount(), histogram.getMean(), histogram.getMin());
+                for(int i = 0; i < PERCENTILES.length; i++){
+                    out.printf(JSON_FIELD, PERCENTILE_NAMES[i], histogram.getValueAtPercentile(PERCENTILES[i]));
+                }
+                out.printf(JSON_SUFFIX_FORMAT, histogram.getMax());
+            }
+        }
+        out.printf(JSON_FOOTER);
+    }
+
+    /**
+     * Writes the metrics as CSV records with a header line.
+     *
+     * @param out The stream to write to
+     */
+    public void writeCsv(PrintStream out){
+        out.println(String.format(CSV_HEADER, String.join(",", PERCENTILE_NAMES)));
+        for(int slot = 0; slot < this.players.length; slot++){
+            for(Map.Entry<Integer, LatencyHistogram> entry : this.players[slot].getHistograms().entrySet()){
+                LatencyHistogram histogram = entry.getValue();
+                out.printf(Locale.ROOT, CSV_PREFIX, slot + 1, this.names[slot], entry.getKey(),
+                        histogram.getCount(), histogram.getMean(), histogram.getMin());
+                for(double percentile : PERCENTILES){
+                    out.print("," + histogram.getValueAtPercentile(percentile));
+                }
+                out.printf(Locale.ROOT, CSV_SUFFIX, histogram.getMax(), this.games, getGamesPerSecond());
+                out.println();
+            }
+        }
+    }
+}
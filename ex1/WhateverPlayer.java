@@ -1,4 +1,4 @@
-import java.util.Random;
+import java.util.SplittableRandom;
 
 /**
  * A simple player implementation that makes random moves.
@@ -9,14 +9,33 @@ import java.util.Random;
  *
  * @author Amit Moses
  */
-public class WhateverPlayer implements Player {
-    private Random rand = new Random();
+public class WhateverPlayer implements Player, Seedable {
+    private SplittableRandom rand = new SplittableRandom();
 
     /**
      * Constructs a new WhateverPlayer.
      */
     public WhateverPlayer() {}
 
+    /**
+     * Creates a new WhateverPlayer whose random choices are reproducible.
+     *
+     * @param seed Seed of the random number generator
+     */
+    public WhateverPlayer(long seed){
+        this.rand = new SplittableRandom(seed);
+    }
+
+    /**
+     * Restarts the random number generator from a seed.
+     *
+     * @param seed The seed
+     */
+    @Override
+    public void setSeed(long seed){
+        this.rand = new SplittableRandom(seed);
+    }
+
     /**
      * Places a mark in a random empty cell on the board.
      * Used both as a fallback strategy and as part of the randomization strategy.
@@ -25,13 +44,8 @@ public class WhateverPlayer implements Player {
      * @param mark The player's mark (X or O)
      */
     private void markRandomMove(Board board, Mark mark) {
-        int randomX= rand.nextInt(board.getSize());
-        int randomY= rand.nextInt(board.getSize());
-        while(board.getMark(randomX, randomY) != Mark.BLANK){
-            randomX = rand.nextInt(board.getSize());
-            randomY = rand.nextInt(board.getSize());
-        }
-        board.putMark(mark, randomX, randomY);
+        long cell = board.getRandomFreeCell(rand);
+        board.putMark(mark, (int) (cell / board.getCols()), (int) (cell % board.getCols()));
     }
 
     /**
@@ -0,0 +1,100 @@
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Zobrist hashing keys for positions of a board with a fixed number of cells.
+ * The hash of a position is the XOR of the keys of its marked cells, so placing
+ * or removing a mark updates the hash with a single XOR.
+ *
+ * The keys are generated from a fixed seed, so the same position always has the
+ * same hash, across players and across runs.
+ *
+ * @author Amit Moses
+ */
+public class Zobrist {
+    /** Seed of the key generator */
+    private static final long SEED = 0x5DEECE66DL;
+
+    /** Number of marks that have keys (X and O) */
+    private static final int NUM_MARKS = 2;
+
+    /** Shared keys, by number of cells */
+    private static final Map<Integer, Zobrist> SHARED = new ConcurrentHashMap<>();
+
+    /** Keys indexed by cell * 2 + (ordinal of the mark - 1) */
+    private long[] keys;
+
+    /** Key XORed into the hash when O is to move */
+    private long sideKey;
+
+    /**
+     * Creates the keys for a board with the given number of cells.
+     *
+     * @param cells Number of cells on the board
+     */
+    public Zobrist(int cells){
+        SplittableRandom rand = new SplittableRandom(SEED);
+        this.keys = new long[cells * NUM_MARKS];
+        for(int i = 0; i < this.keys.length; i++){
+            this.keys[i] = rand.nextLong();
+        }
+        this.sideKey = rand.nextLong();
+    }
+
+    /**
+     * Returns keys for the given number of cells, shared by every caller.
+     * Keys are immutable once created, so they are safe to share across threads.
+     *
+     * @param cells Number of cells on the board
+     * @return The shared keys
+     */
+    public static Zobrist forCells(int cells){
+        return SHARED.computeIfAbsent(cells, Zobrist::new);
+    }
+
+    /**
+     * Returns the key of a mark placed on a cell.
+     *
+     * @param cell The cell index (row * cols + col)
+     * @param mark The mark (X or O)
+     * @return The key to XOR into the hash
+     */
+    public long getKey(int cell, Mark mark){
+        return this.keys[cell * NUM_MARKS + mark.ordinal() - 1];
+    }
+
+    /**
+     * Computes the key of a mark placed on a cell without a key table, for
+     * boards too large to store a key per cell. The key is a 64-bit mix of the
+     * cell index and the mark, so it is the same across boards and runs.
+     *
+     * @param cell The cell index (row * cols + col)
+     * @param mark The mark (X or O)
+     * @return The key to XOR into the hash
+     */
+    public static long computeKey(long cell, Mark mark){
+        long z = SEED + (cell * NUM_MARKS + mark.ordinal()) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns the key that marks O as the side to move.
+     *
+     * @return The side-to-move key
+     */
+    public long getSideKey(){
+        return this.sideKey;
+    }
+
+    /**
+     * Returns the number of cells these keys were generated for.
+     *
+     * @return Number of cells
+     */
+    public int getCells(){
+        return this.keys.length / NUM_MARKS;
+    }
+}
@@ -4,7 +4,8 @@ import bricker.main.BrickerGameManager;
 import danogl.GameObject;
 
 /**
- * A basic collision strategy that simply removes the colliding object from the game.
+ * A basic collision strategy that simply removes the colliding brick from the game
+ * and from the brick grid.
  *
  * @author Emmanuelle Schnitzer
  * @author Amit Moses
@@ -25,14 +26,14 @@ public class BasicCollisionStrategy implements CollisionStrategy {
     }
 
     /**
-     * Removes the other object from the game upon collision.
+     * Removes the brick from the game and from the brick grid upon collision.
      *
      * @param thisObj The primary object involved in the collision.
-     * @param otherObj The object to be removed from the game.
+     * @param otherObj The brick to be removed from the game.
      */
     @Override
     public void onCollision(GameObject thisObj, GameObject otherObj) {
-        if(this.manager.removeObj(otherObj)){
+        if(this.manager.removeBrick(otherObj)){
             manager.incrementCountCollision();
         }
 
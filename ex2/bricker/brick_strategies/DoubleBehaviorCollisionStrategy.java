@@ -23,11 +23,6 @@ public class DoubleBehaviorCollisionStrategy implements CollisionStrategy {
      */
     private BrickerGameManager manager;
 
-    /**
-     * Random number generator for selecting behaviors.
-     */
-    private Random rand = new Random();
-
     /**
      * Constructs a DoubleBehaviorCollisionStrategy and initializes random behaviors.
      *
@@ -42,6 +37,7 @@ public class DoubleBehaviorCollisionStrategy implements CollisionStrategy {
      * Sets random collision behaviors for the strategy.
      */
     private void setBehaviors() {
+        Random rand = manager.getRandom();
         int randomNum2 = rand.nextInt(1, FactoryStrategies.getStrategyNum());
         CollisionStrategy behavior1 = FactoryStrategies.createCollisionStrategy(randomNum2, manager);
         int randomNum1 = rand.nextInt(FactoryStrategies.getStrategyNum());
@@ -2,12 +2,8 @@ package bricker.brick_strategies;
 
 import bricker.gameobjects.Ball;
 import bricker.main.BrickerGameManager;
-import bricker.main.Path;
 import danogl.GameObject;
-import danogl.gui.Sound;
-import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
-import java.util.Random;
 
 /**
  * A collision strategy that generates two additional balls upon collision.
@@ -32,11 +28,6 @@ public class MoreBallsCollisionStrategy implements CollisionStrategy {
      */
     private BrickerGameManager manager;
 
-    /**
-     * Random number generator for creating random velocities.
-     */
-    private Random rand = new Random();
-
     /**
      * The next collision strategy to be executed.
      */
@@ -71,26 +62,22 @@ public class MoreBallsCollisionStrategy implements CollisionStrategy {
      * @return A Vector2 representing a randomized ball velocity.
      */
     private Vector2 getRandDirection() {
-        double angle = this.rand.nextDouble() * Math.PI;
+        double angle = this.manager.getRandom().nextDouble() * Math.PI;
         float velocityX = (float) Math.cos(angle) * BALL_SPEED;
         float velocityY = (float) Math.sin(angle) * BALL_SPEED;
         return new Vector2(velocityX, velocityY);
     }
 
     /**
-     * Creates two new balls at the collision point with random velocities.
+     * Places two pucks from the manager's pool at the collision point with random velocities.
      *
      * @param otherObj The object at the collision point.
      * @param thisObj The object initiating the collision.
      */
     private void makeNewBalls(GameObject otherObj, GameObject thisObj) {
         Vector2 place = otherObj.getCenter();
-        Renderable ballImage = manager.getImage(Path.PACK_IMAGE, true);
-        Sound collisionSound = manager.getSound(Path.BALL_SOUND);
-        Ball puck1 = new Ball(Vector2.ZERO, thisObj.getDimensions().mult(MULT),
-                ballImage, collisionSound, 1, BALL_SPEED);
-        Ball puck2 = new Ball(Vector2.ZERO, thisObj.getDimensions().mult(MULT),
-                ballImage, collisionSound, 1, BALL_SPEED);
+        Ball puck1 = manager.getNewPuck(thisObj.getDimensions().mult(MULT));
+        Ball puck2 = manager.getNewPuck(thisObj.getDimensions().mult(MULT));
         puck1.setVelocity(getRandDirection());
         puck2.setVelocity(getRandDirection());
         puck1.setCenter(place);
@@ -48,7 +48,7 @@ public class TurboCollisionStrategy implements CollisionStrategy {
         }
 
         manager.getMainBall().setResetCounter(manager.getMainBall().getCollisionCounter() + TURBO_COUNT);
-        manager.getMainBall().renderer().setRenderable(manager.getImage(Path.TURBO_IMAGE, true));
+        manager.getMainBall().renderer().setRenderable(manager.getImage(Path.TURBO_IMAGE));
         manager.getMainBall().applySpeed();
     }
 
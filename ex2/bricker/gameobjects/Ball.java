@@ -50,7 +50,7 @@ public class Ball extends GameObject {
      * @param topLeftCorner Initial position of the ball.
      * @param dimensions Size of the ball.
      * @param renderable Visual representation of the ball.
-     * @param collisionSound Sound played on collision.
+     * @param collisionSound Sound played on collision, or null for a silent ball.
      * @param speedFactor Initial speed factor of the ball.
      * @param speed Initial speed of the ball.
      */
@@ -117,6 +117,16 @@ public class Ball extends GameObject {
         return resetCounter;
     }
 
+    /**
+     * Clears the collision counters and stops the ball, so a pooled puck
+     * starts over when it is reused.
+     */
+    public void resetState() {
+        this.collisionCounter = 0;
+        this.resetCounter = -1;
+        setVelocity(Vector2.ZERO);
+    }
+
     /**
      * Resets the ball's state, including its speed and visual representation.
      */
@@ -140,15 +150,26 @@ public class Ball extends GameObject {
         if (other instanceof Ball) {
             return;
         }
+        bounce(collision.getNormal());
+    }
 
+    /**
+     * Bounces the ball off a surface with the given normal.
+     * Reverses ball velocity, plays collision sound and counts the collision.
+     *
+     * @param normal Unit normal of the surface the ball hit.
+     */
+    public void bounce(Vector2 normal) {
         if (collisionCounter == resetCounter) {
             onReset();
         }
 
         // Reverse the velocity of the ball.
-        Vector2 newVel = getVelocity().flipped(collision.getNormal());
+        Vector2 newVel = getVelocity().flipped(normal);
         setVelocity(newVel);
-        collisionSound.play();
+        if (collisionSound != null) {
+            collisionSound.play();
+        }
         collisionCounter++;
     }
 }
\ No newline at end of file
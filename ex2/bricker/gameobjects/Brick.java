@@ -54,6 +54,16 @@ public class Brick extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
+        onHit(other);
+    }
+
+    /**
+     * Triggers the brick's collision strategy when a Ball hits the brick.
+     * Used by the engine's collisions and by {@link BrickGrid}.
+     *
+     * @param other The ball that hit the brick.
+     */
+    public void onHit(GameObject other) {
         this.collisionStrategy.onCollision(other, this);
     }
 }
\ No newline at end of file
@@ -0,0 +1,183 @@
+package bricker.gameobjects;
+
+import danogl.GameObject;
+import danogl.util.Vector2;
+
+/**
+ * A uniform grid index of the bricks, one cell per brick slot of the
+ * rows x cols layout. Bricks are kept out of the engine's pairwise collision
+ * checks, and every ball is tested only against the bricks of the few cells
+ * its bounding box overlaps, found in O(1) from its position, so collision
+ * cost grows with the number of balls rather than the number of bricks.
+ *
+ * @author Emmanuelle Schnitzer
+ * @author Amit Moses
+ */
+public class BrickGrid {
+    /**
+     * The brick of every cell, row by row, or null for an empty cell.
+     */
+    private Brick[] cells;
+
+    /**
+     * Number of rows of the grid.
+     */
+    private int rows;
+
+    /**
+     * Number of columns of the grid.
+     */
+    private int cols;
+
+    /**
+     * Top left corner of the first cell.
+     */
+    private Vector2 origin;
+
+    /**
+     * Size of a cell: a brick and the margin after it.
+     */
+    private Vector2 cellSize;
+
+    /**
+     * Number of bricks in the grid.
+     */
+    private int count;
+
+    /**
+     * Constructs an empty grid.
+     *
+     * @param rows Number of rows of bricks.
+     * @param cols Number of columns of bricks.
+     * @param origin Top left corner of the first brick.
+     * @param cellSize Distance between the top left corners of neighbouring bricks.
+     */
+    public BrickGrid(int rows, int cols, Vector2 origin, Vector2 cellSize) {
+        this.rows = rows;
+        this.cols = cols;
+        this.origin = origin;
+        this.cellSize = cellSize;
+        this.cells = new Brick[rows * cols];
+        this.count = 0;
+    }
+
+    /**
+     * Puts a brick into a cell.
+     *
+     * @param row Row of the brick.
+     * @param col Column of the brick.
+     * @param brick The brick.
+     */
+    public void add(int row, int col, Brick brick) {
+        if (cells[row * cols + col] == null) {
+            count++;
+        }
+        cells[row * cols + col] = brick;
+    }
+
+    /**
+     * Removes a brick from the grid. The cell is found from the brick's center.
+     *
+     * @param brick The brick to remove.
+     * @return True if the brick was in the grid, false otherwise.
+     */
+    public boolean remove(GameObject brick) {
+        int row = rowOf(brick.getCenter().y());
+        int col = colOf(brick.getCenter().x());
+        if (row < 0 || row >= rows || col < 0 || col >= cols || cells[row * cols + col] != brick) {
+            return false;
+        }
+        cells[row * cols + col] = null;
+        count--;
+        return true;
+    }
+
+    /**
+     * Returns the number of bricks in the grid.
+     *
+     * @return Number of bricks left.
+     */
+    public int size() {
+        return count;
+    }
+
+    /**
+     * Hits every brick the ball overlaps. The ball bounces off the first of
+     * them it moves into, so hitting two neighbouring bricks at once does not
+     * flip the ball twice.
+     *
+     * @param ball The ball to test.
+     */
+    public void collide(Ball ball) {
+        Vector2 topLeft = ball.getTopLeftCorner();
+        Vector2 bottomRight = topLeft.add(ball.getDimensions());
+        int firstRow = Math.max(0, rowOf(topLeft.y()));
+        int lastRow = Math.min(rows - 1, rowOf(bottomRight.y()));
+        int firstCol = Math.max(0, colOf(topLeft.x()));
+        int lastCol = Math.min(cols - 1, colOf(bottomRight.x()));
+        for (int row = firstRow; row <= lastRow; row++) {
+            for (int col = firstCol; col <= lastCol; col++) {
+                Brick brick = cells[row * cols + col];
+                if (brick != null && overlaps(ball, brick)) {
+                    Vector2 normal = normalOf(ball, brick);
+                    if (ball.getVelocity().dot(normal) < 0) {
+                        ball.bounce(normal);
+                    }
+                    brick.onHit(ball);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the grid row of a y coordinate.
+     *
+     * @param y The y coordinate.
+     * @return The row, which may be outside the grid.
+     */
+    private int rowOf(float y) {
+        return (int) Math.floor((y - origin.y()) / cellSize.y());
+    }
+
+    /**
+     * Returns the grid column of an x coordinate.
+     *
+     * @param x The x coordinate.
+     * @return The column, which may be outside the grid.
+     */
+    private int colOf(float x) {
+        return (int) Math.floor((x - origin.x()) / cellSize.x());
+    }
+
+    /**
+     * Checks whether the bounding boxes of two objects overlap.
+     *
+     * @param first The first object.
+     * @param second The second object.
+     * @return True if the boxes overlap, false otherwise.
+     */
+    private static boolean overlaps(GameObject first, GameObject second) {
+        Vector2 firstEnd = first.getTopLeftCorner().add(first.getDimensions());
+        Vector2 secondEnd = second.getTopLeftCorner().add(second.getDimensions());
+        return first.getTopLeftCorner().x() < secondEnd.x() && second.getTopLeftCorner().x() < firstEnd.x()
+                && first.getTopLeftCorner().y() < secondEnd.y() && second.getTopLeftCorner().y() < firstEnd.y();
+    }
+
+    /**
+     * Finds the normal of the brick side the ball hit: the axis along which
+     * the boxes overlap least, pointing from the brick towards the ball.
+     *
+     * @param ball The ball.
+     * @param brick The brick the ball overlaps.
+     * @return Unit normal of the hit side.
+     */
+    private static Vector2 normalOf(GameObject ball, GameObject brick) {
+        Vector2 offset = ball.getCenter().subtract(brick.getCenter());
+        float overlapX = (ball.getDimensions().x() + brick.getDimensions().x()) / 2 - Math.abs(offset.x());
+        float overlapY = (ball.getDimensions().y() + brick.getDimensions().y()) / 2 - Math.abs(offset.y());
+        if (overlapX < overlapY) {
+            return offset.x() < 0 ? Vector2.LEFT : Vector2.RIGHT;
+        }
+        return offset.y() < 0 ? Vector2.UP : Vector2.DOWN;
+    }
+}
@@ -2,32 +2,30 @@ package bricker.gameobjects;
 
 import danogl.GameObject;
 import danogl.collisions.Collision;
-import danogl.collisions.GameObjectCollection;
 import danogl.gui.rendering.Renderable;
 import danogl.util.Vector2;
 
+import java.util.function.Consumer;
+
 /**
  * Represents a heart object in the Bricker game.
  * Extends GameObject to provide collision handling and rendering functionality.
+ * A heart is collected by the paddle it is given when it spawns, and leaves
+ * the game through the action it is given along with the paddle.
  *
  * @author Emmanuelle Schnitzer
  * @author Amit Moses
  */
 public class Heart extends GameObject {
-    /**
-     * LifePanel instance to manage the number of lives.
-     */
-    private LifePanel lifeGraphic;
-
     /**
      * Paddle instance representing the main paddle.
      */
     private Paddle mainPaddle;
 
     /**
-     * Collection of game objects.
+     * Action taken when the main paddle collects the heart.
      */
-    private GameObjectCollection collection;
+    private Consumer<Heart> onCollect;
 
     /**
      * Constructs a new Heart instance.
@@ -37,20 +35,25 @@ public class Heart extends GameObject {
      * @param dimensions    Width and height in window coordinates.
      * @param renderable    The renderable representing the object. Can be null, in which case
      *                      the GameObject will not be rendered.
-     * @param lifeGraphic   LifePanel instance to manage the number of lives.
-     * @param mainPaddle    Paddle instance representing the main paddle.
-     * @param collection    Collection of game objects.
      */
-    public Heart(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable, LifePanel lifeGraphic, Paddle mainPaddle, GameObjectCollection collection) {
+    public Heart(Vector2 topLeftCorner, Vector2 dimensions, Renderable renderable) {
         super(topLeftCorner, dimensions, renderable);
-        this.lifeGraphic = lifeGraphic;
+    }
+
+    /**
+     * Sets the paddle that collects the heart and the action taken when it does.
+     *
+     * @param mainPaddle Paddle instance representing the main paddle.
+     * @param onCollect  Action taken when the main paddle collects the heart.
+     */
+    public void setCollector(Paddle mainPaddle, Consumer<Heart> onCollect) {
         this.mainPaddle = mainPaddle;
-        this.collection = collection;
+        this.onCollect = onCollect;
     }
 
     /**
      * Handles the collision event when the heart collides with another game object.
-     * Adds a new heart to the life panel and removes the heart object from the game.
+     * Hands the heart to its collect action, which adds a life and removes the heart.
      *
      * @param other      The other game object involved in the collision.
      * @param collision  The collision information.
@@ -58,8 +61,7 @@ public class Heart extends GameObject {
     @Override
     public void onCollisionEnter(GameObject other, Collision collision) {
         super.onCollisionEnter(other, collision);
-        this.lifeGraphic.addNewHeart();
-        collection.removeGameObject(this);
+        this.onCollect.accept(this);
     }
 
     /**
@@ -0,0 +1,112 @@
+package bricker.gameobjects;
+
+import danogl.GameObject;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * A pool of short-lived game objects, such as pucks and hearts. Objects are
+ * acquired when they spawn and released when they leave the game, so a long
+ * game reuses a few objects instead of allocating new ones on every hit.
+ *
+ * The pool counts how many acquisitions were served by a released object
+ * (hits) and how many had to create a new one (misses).
+ *
+ * @param <T> Type of the pooled objects.
+ * @author Emmanuelle Schnitzer
+ * @author Amit Moses
+ */
+public class ObjectPool<T extends GameObject> {
+    /**
+     * Released objects, ready to be acquired again.
+     */
+    private Deque<T> free = new ArrayDeque<>();
+
+    /**
+     * Creates a new object when the pool is empty.
+     */
+    private Supplier<T> factory;
+
+    /**
+     * Clears the state of a released object.
+     */
+    private Consumer<T> resetter;
+
+    /**
+     * Number of acquisitions served by a released object.
+     */
+    private long hits;
+
+    /**
+     * Number of acquisitions that created a new object.
+     */
+    private long misses;
+
+    /**
+     * Constructs an empty pool.
+     *
+     * @param factory Creates a new object when the pool is empty.
+     * @param resetter Clears the state of a released object.
+     */
+    public ObjectPool(Supplier<T> factory, Consumer<T> resetter) {
+        this.factory = factory;
+        this.resetter = resetter;
+    }
+
+    /**
+     * Returns a released object, or a new one if none is free.
+     *
+     * @return An object ready to be placed and added to the game.
+     */
+    public T acquire() {
+        T obj = free.poll();
+        if (obj == null) {
+            misses++;
+            return factory.get();
+        }
+        hits++;
+        return obj;
+    }
+
+    /**
+     * Resets an object that left the game and keeps it for reuse.
+     * The object must not be released twice.
+     *
+     * @param obj The object, already removed from the game.
+     */
+    public void release(T obj) {
+        resetter.accept(obj);
+        free.push(obj);
+    }
+
+    /**
+     * Returns the number of acquisitions served by a released object.
+     *
+     * @return Number of hits.
+     */
+    public long getHits() {
+        return hits;
+    }
+
+    /**
+     * Returns the number of acquisitions that created a new object.
+     *
+     * @return Number of misses.
+     */
+    public long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Returns the share of acquisitions served by a released object.
+     *
+     * @return Hit rate between 0 and 1, or 0 before the first acquisition.
+     */
+    public double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
\ No newline at end of file
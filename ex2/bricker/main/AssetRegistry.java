@@ -0,0 +1,147 @@
+package bricker.main;
+
+import danogl.gui.ImageReader;
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.rendering.Renderable;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Loads every asset of {@link Path} once, when the game is first initialized,
+ * and hands out the same shared image or sound on every request afterwards,
+ * so collisions never read assets mid-frame and resets never read them again.
+ *
+ * The time taken and the bytes allocated while loading every asset are
+ * recorded, and can be printed with {@link #printReport}. The allocated bytes
+ * are only known on JVMs that count allocations per thread.
+ *
+ * @author Emmanuelle Schnitzer
+ * @author Amit Moses
+ */
+public class AssetRegistry {
+    // Constants for the load report
+    private static final String REPORT_HEADER = "asset,path,load_ms,allocated_bytes";
+    private static final String REPORT_FORMAT = "%s,%s,%.3f,%d%n";
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final long UNKNOWN_BYTES = -1;
+
+    /**
+     * Source of the per-thread allocation counter, on JVMs that have one.
+     */
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+    /**
+     * The loaded images.
+     */
+    private Map<Path, Renderable> images = new EnumMap<>(Path.class);
+
+    /**
+     * The loaded sounds.
+     */
+    private Map<Path, Sound> sounds = new EnumMap<>(Path.class);
+
+    /**
+     * Time taken to load every asset, in nanoseconds.
+     */
+    private Map<Path, Long> loadNanos = new EnumMap<>(Path.class);
+
+    /**
+     * Bytes allocated while loading every asset.
+     */
+    private Map<Path, Long> loadBytes = new EnumMap<>(Path.class);
+
+    /**
+     * Loads every asset of {@link Path}.
+     *
+     * @param imageReader Image reader for loading images.
+     * @param soundReader Sound reader for loading sounds.
+     */
+    public AssetRegistry(ImageReader imageReader, SoundReader soundReader) {
+        for (Path path : Path.values()) {
+            long startBytes = allocatedBytes();
+            long start = System.nanoTime();
+            if (path.isSound()) {
+                sounds.put(path, soundReader.readSound(path.getPath()));
+            } else {
+                images.put(path, imageReader.readImage(path.getPath(), path.isTopLeftPixelTransparency()));
+            }
+            loadNanos.put(path, System.nanoTime() - start);
+            long endBytes = allocatedBytes();
+            loadBytes.put(path, startBytes == UNKNOWN_BYTES || endBytes == UNKNOWN_BYTES
+                    ? UNKNOWN_BYTES : endBytes - startBytes);
+        }
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread so far.
+     *
+     * @return Allocated bytes, or -1 if the JVM does not count them.
+     */
+    private static long allocatedBytes() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean counter
+                && counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+            return counter.getCurrentThreadAllocatedBytes();
+        }
+        return UNKNOWN_BYTES;
+    }
+
+    /**
+     * Returns the shared image of an image asset.
+     *
+     * @param path Path of the image.
+     * @return The image, or null if the path is a sound.
+     */
+    public Renderable getImage(Path path) {
+        return images.get(path);
+    }
+
+    /**
+     * Returns the shared sound of a sound asset.
+     *
+     * @param path Path of the sound.
+     * @return The sound, or null if the path is an image.
+     */
+    public Sound getSound(Path path) {
+        return sounds.get(path);
+    }
+
+    /**
+     * Returns the time taken to load an asset.
+     *
+     * @param path Path of the asset.
+     * @return Load time in nanoseconds.
+     */
+    public long getLoadNanos(Path path) {
+        return loadNanos.get(path);
+    }
+
+    /**
+     * Returns the bytes allocated while loading an asset, an estimate of the
+     * memory the asset takes.
+     *
+     * @param path Path of the asset.
+     * @return Allocated bytes, or -1 if the JVM does not count them.
+     */
+    public long getLoadBytes(Path path) {
+        return loadBytes.get(path);
+    }
+
+    /**
+     * Prints the load time and allocated bytes of every asset, as CSV, with
+     * -1 bytes when the JVM does not count them.
+     *
+     * @param out Stream to print to.
+     */
+    public void printReport(PrintStream out) {
+        out.println(REPORT_HEADER);
+        for (Path path : Path.values()) {
+            out.printf(REPORT_FORMAT, path.name(), path.getPath(),
+                    loadNanos.get(path) / NANOS_PER_MILLI, loadBytes.get(path));
+        }
+    }
+}
\ No newline at end of file
@@ -10,6 +10,8 @@ import danogl.gui.rendering.Renderable;
 import danogl.gui.rendering.TextRenderable;
 import danogl.util.Vector2;
 import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -36,16 +38,22 @@ public class BrickerGameManager extends GameManager {
     private static final float SPEED_FACTOR = 1.4F;
     private static final float CENTER_FACTOR = 0.5f;
     private static final float PADDLE_SPEED = 300;
+    private static final float PUCK_SPEED_FACTOR = 1;
+
+    // Bricks are kept in their own layer, which the engine does not check for collisions
+    private static final int BRICK_LAYER = Layer.STATIC_OBJECTS + 1;
 
-    private static final Vector2 WINDOW_SCALE = new Vector2(700, 500);
     private static final Vector2 HEART_SIZE = new Vector2(15, 15);
     private static final Vector2 BALL_SIZE = new Vector2(30, 30);
     private static final Vector2 PADDLE_SIZE = new Vector2(200, 20);
 
-    private static final String WIN_MSG = "You win!";
-    private static final String LOSE_MSG = "You lose!";
     private static final String PLAY_AGAIN_MSG = " Play again?";
-    private static final String TITLE = "Bricker Game";
+
+    // Shared with the headless runner, which reads the outcome from the end dialog
+    static final Vector2 WINDOW_SCALE = new Vector2(700, 500);
+    static final String WIN_MSG = "You win!";
+    static final String LOSE_MSG = "You lose!";
+    static final String TITLE = "Bricker Game";
 
     private Random rand = new Random();
     private Ball ball;
@@ -55,11 +63,14 @@ public class BrickerGameManager extends GameManager {
     private LifePanel lifeGraphic;
     private Paddle userPaddle;
     private TempPaddle centerPaddle;
-    private SoundReader soundReader;
-    private ImageReader imageReader;
     private UserInputListener inputListener;
     private WindowController windowController;
+    private AssetRegistry assets;
+    private ObjectPool<Ball> puckPool;
+    private ObjectPool<Heart> heartPool;
     private int countCollision;
+    private BrickGrid brickGrid;
+    private List<GameObject> dynamicObjects = new ArrayList<>();
 
     /**
      * Main method to start the game.
@@ -95,33 +106,44 @@ public class BrickerGameManager extends GameManager {
         this.cols = cols;
         this.countCollision = 0;
         this.windowDim = WINDOW_SCALE;
+        makePools();
     }
 
     /**
-     * Reads and returns a sound from the specified path.
+     * Returns the shared sound of the specified path, loaded when the game is first initialized.
      * @param path Path to the sound file
      * @return Sound object
      */
     public Sound getSound(Path path) {
-        return soundReader.readSound(path.getPath());
+        return assets.getSound(path);
     }
 
     /**
-     * Reads and returns an image from the specified path.
+     * Returns the shared image of the specified path, loaded when the game is first initialized.
      * @param path Path to the image file
-     * @param isTopLeftPixelTransparency Whether the top-left pixel is transparent
      * @return Renderable image object
      */
-    public Renderable getImage(Path path, boolean isTopLeftPixelTransparency) {
-        return imageReader.readImage(path.getPath(), isTopLeftPixelTransparency);
+    public Renderable getImage(Path path) {
+        return assets.getImage(path);
     }
 
     /**
-     * Adds a game object to the game.
+     * Retrieves the registry of the loaded assets.
+     * @return Asset registry, with the load time and memory of every asset
+     */
+    public AssetRegistry getAssets() {
+        return assets;
+    }
+
+    /**
+     * Adds a moving game object (a ball, puck or heart) to the game, and
+     * registers it as dynamic: only dynamic objects are checked for leaving
+     * the window, and balls among them are tested against the brick grid.
      * @param gameObject Game object to add
      */
     public void addObj(GameObject gameObject) {
         gameObjects().addGameObject(gameObject);
+        dynamicObjects.add(gameObject);
     }
 
     /**
@@ -130,9 +152,22 @@ public class BrickerGameManager extends GameManager {
      * @return True if the object was removed, false otherwise
      */
     public boolean removeObj(GameObject gameObject) {
+        dynamicObjects.remove(gameObject);
         return gameObjects().removeGameObject(gameObject);
     }
 
+    /**
+     * Removes a brick from the game and from the brick grid.
+     * @param brick Brick to remove
+     * @return True if the brick was removed, false if it was removed already
+     */
+    public boolean removeBrick(GameObject brick) {
+        if (!brickGrid.remove(brick)) {
+            return false;
+        }
+        return gameObjects().removeGameObject(brick, BRICK_LAYER);
+    }
+
     /**
      * Increments the collision count.
      */
@@ -148,6 +183,48 @@ public class BrickerGameManager extends GameManager {
         return centerPaddle;
     }
 
+    /**
+     * Retrieves the paddle controlled by the user.
+     * @return User paddle object
+     */
+    public Paddle getUserPaddle() {
+        return userPaddle;
+    }
+
+    /**
+     * Retrieves the number of bricks left in the game.
+     * @return Number of bricks not yet broken
+     */
+    public int getBricksLeft() {
+        return brickGrid.size();
+    }
+
+    /**
+     * Retrieves the number of lives left.
+     * @return Current number of lives
+     */
+    public int getLives() {
+        return lifeGraphic.getCurrentLives();
+    }
+
+    /**
+     * Retrieves the random number generator shared by the game and its
+     * collision strategies, so a seeded game is reproducible.
+     * @return Random number generator
+     */
+    public Random getRandom() {
+        return rand;
+    }
+
+    /**
+     * Restarts the random number generator, so the next initialized game
+     * lays out the same bricks and plays out the same way.
+     * @param seed The seed
+     */
+    public void setSeed(long seed) {
+        rand.setSeed(seed);
+    }
+
     /**
      * Retrieves the main game ball.
      * @return Main game ball object
@@ -157,17 +234,48 @@ public class BrickerGameManager extends GameManager {
     }
 
     /**
-     * Creates and returns a new heart object.
-     * @return New heart object
+     * Returns a heart object from the heart pool, not yet added to the game.
+     * The heart is collected by the user paddle.
+     * @return Heart object
      */
     public Heart getNewHeart() {
-        return new Heart(Vector2.ZERO, HEART_SIZE,
-                getImage(Path.HEART_IMAGE, true),
-                lifeGraphic, userPaddle, gameObjects());
+        Heart heart = heartPool.acquire();
+        heart.setCollector(userPaddle, this::collectHeart);
+        return heart;
+    }
+
+    /**
+     * Returns a puck from the puck pool, not yet added to the game.
+     * @param dimensions Size of the puck
+     * @return Puck object
+     */
+    public Ball getNewPuck(Vector2 dimensions) {
+        Ball puck = puckPool.acquire();
+        puck.setDimensions(dimensions);
+        return puck;
+    }
+
+    /**
+     * Retrieves the pool of pucks, kept across resets.
+     * @return Puck pool, with its hit counters over every game played
+     */
+    public ObjectPool<Ball> getPuckPool() {
+        return puckPool;
+    }
+
+    /**
+     * Retrieves the pool of hearts, kept across resets.
+     * @return Heart pool, with its hit counters over every game played
+     */
+    public ObjectPool<Heart> getHeartPool() {
+        return heartPool;
     }
 
     /**
      * Initializes the game, setting up game objects and initial state.
+     * Assets are only loaded on the first initialization, and shared by every
+     * game after a reset, as are the pools, which get back the pucks and
+     * hearts still in play when the previous game ended.
      * @param imageReader Image reader for loading images
      * @param soundReader Sound reader for loading sounds
      * @param inputListener Listener for user input
@@ -176,19 +284,21 @@ public class BrickerGameManager extends GameManager {
     @Override
     public void initializeGame(ImageReader imageReader, SoundReader soundReader,
                                UserInputListener inputListener, WindowController windowController) {
+        releaseAll();
         super.initializeGame(imageReader, soundReader, inputListener, windowController);
         this.countCollision = 0;
-        this.soundReader = soundReader;
-        this.imageReader = imageReader;
         this.inputListener = inputListener;
         this.windowController = windowController;
         this.windowDim = windowController.getWindowDimensions();
+        if (this.assets == null) {
+            this.assets = new AssetRegistry(imageReader, soundReader);
+        }
 
         ball = new Ball(Vector2.ZERO, BALL_SIZE,
-                getImage(Path.BALL_IMAGE, true),
+                getImage(Path.BALL_IMAGE),
                 getSound(Path.BALL_SOUND), SPEED_FACTOR, BALL_SPEED);
 
-        this.gameObjects().addGameObject(ball);
+        addObj(ball);
         centerBall(); //sets the ball to the center of the window
 
         TextRenderable textRenderable = new TextRenderable("");
@@ -196,7 +306,7 @@ public class BrickerGameManager extends GameManager {
                 windowDim.y() - PADDLE_PADDING), HEART_SIZE, textRenderable);
         this.gameObjects().addGameObject(lifeLabel, Layer.UI);
 
-        Renderable heartImage = getImage(Path.HEART_IMAGE, true);
+        Renderable heartImage = getImage(Path.HEART_IMAGE);
         this.lifeGraphic = new LifePanel(gameObjects(), DEFAULT_LIVES, MAX_LIVES, heartImage,
                 HEART_SCALE, new Vector2(PADDLE_PADDING, windowDim.y() - PADDLE_PADDING), textRenderable);
 
@@ -205,16 +315,30 @@ public class BrickerGameManager extends GameManager {
         makeBricks();
     }
 
+    /**
+     * Creates the pools of pucks and hearts, shared by every game the manager
+     * plays. Pooled objects are released when they fall below the window,
+     * hearts also when the paddle collects them, and both when the game is reset.
+     * Images are read when an object is created, after the assets are loaded.
+     */
+    private void makePools() {
+        this.puckPool = new ObjectPool<>(() -> new Ball(Vector2.ZERO, BALL_SIZE,
+                getImage(Path.PACK_IMAGE), getSound(Path.BALL_SOUND), PUCK_SPEED_FACTOR, BALL_SPEED),
+                Ball::resetState);
+        this.heartPool = new ObjectPool<>(() -> new Heart(Vector2.ZERO, HEART_SIZE,
+                getImage(Path.HEART_IMAGE)), this::resetHeart);
+    }
+
     /**
      * Creates and adds paddles to the game.
      */
     private void makePaddles() {
         this.userPaddle = new Paddle(Vector2.ZERO, PADDLE_SIZE,
-                getImage(Path.PADDLE_IMAGE, false),
+                getImage(Path.PADDLE_IMAGE),
                 inputListener, windowDim.x() - PADDLE_SIZE.x() - WIDTH_BORDER, WIDTH_BORDER, PADDLE_SPEED);
 
         this.centerPaddle = new TempPaddle(Vector2.ZERO, PADDLE_SIZE,
-                getImage(Path.PADDLE_IMAGE, false),
+                getImage(Path.PADDLE_IMAGE),
                 inputListener, windowDim.x() - PADDLE_SIZE.x() - WIDTH_BORDER, WIDTH_BORDER,
                 PADDLE_SPEED, gameObjects(), TEMP_PADDLE_COUNT, windowDim.mult(CENTER_FACTOR));
 
@@ -227,7 +351,7 @@ public class BrickerGameManager extends GameManager {
      */
     private void makeFixedObjects() {
         GameObject background = new GameObject(Vector2.ZERO, windowDim,
-                getImage(Path.BACKGROUND_IMAGE, false));
+                getImage(Path.BACKGROUND_IMAGE));
         this.gameObjects().addGameObject(background, Layer.BACKGROUND);
 
         GameObject borderTop = new GameObject(Vector2.ZERO, new Vector2(windowDim.x(), WIDTH_BORDER), null);
@@ -241,21 +365,27 @@ public class BrickerGameManager extends GameManager {
     }
 
     /**
-     * Creates and adds bricks to the game.
+     * Creates and adds bricks to the game and to the brick grid.
+     * The engine does not check the brick layer for collisions; balls are
+     * tested against the grid in {@link #update} instead.
      */
     private void makeBricks() {
         float width = windowDim.x() - 2 * WIDTH_BORDER - (cols + 1) * MARGIN;
         float width_brick = width / cols; // Width of each brick
         Vector2 startVector = new Vector2(WIDTH_BORDER + MARGIN, HEIGHT_BRICK);
+        this.brickGrid = new BrickGrid(rows, cols, startVector,
+                new Vector2(width_brick + MARGIN, HEIGHT_BRICK + MARGIN));
+        this.gameObjects().layers().shouldLayersCollide(BRICK_LAYER, Layer.DEFAULT, false);
         for (int i = 0; i < rows; i++) {
             Vector2 currentVector = new Vector2(startVector.x(), startVector.y() + i * (HEIGHT_BRICK + MARGIN));
             for (int j = 0; j < cols; j++) {
                 Vector2 brickPosition = new Vector2(currentVector.x() + j * (width_brick + MARGIN), currentVector.y());
                 int randomNumber = rand.nextInt(STRATEGIES_RANGE);
                 CollisionStrategy collisionStrategy = FactoryStrategies.createCollisionStrategy(randomNumber, this);
-                GameObject brick = new Brick(brickPosition, new Vector2(width_brick, HEIGHT_BRICK),
-                        getImage(Path.BRICK_IMAGE, false), collisionStrategy);
-                this.gameObjects().addGameObject(brick);
+                Brick brick = new Brick(brickPosition, new Vector2(width_brick, HEIGHT_BRICK),
+                        getImage(Path.BRICK_IMAGE), collisionStrategy);
+                this.gameObjects().addGameObject(brick, BRICK_LAYER);
+                this.brickGrid.add(i, j, brick);
             }
         }
     }
@@ -274,33 +404,91 @@ public class BrickerGameManager extends GameManager {
 
     /**
      * Updates the game state, checking for collisions and game over conditions.
+     * Balls are tested against the brick grid after the engine moved them.
+     * Only dynamic objects are checked for falling below the window, so bricks,
+     * borders and UI are never scanned.
      * @param deltaTime Time elapsed since the last update
      */
     @Override
     public void update(float deltaTime) {
         super.update(deltaTime);
+        // Indexed loop: pucks may be added while colliding
+        for (int i = 0; i < dynamicObjects.size(); i++) {
+            if (dynamicObjects.get(i) instanceof Ball) {
+                brickGrid.collide((Ball) dynamicObjects.get(i));
+            }
+        }
         if (this.rows * this.cols <= countCollision || inputListener.isKeyPressed(KeyEvent.VK_W)) {
             endGame(WIN_MSG);
         }
 
-        for (GameObject obj : this.gameObjects()) {
-            if (obj.equals(ball)) {
-                if (windowDim.y() < ball.getCenter().y()) {
+        // Backwards: released objects are removed from the list while sweeping
+        for (int i = dynamicObjects.size() - 1; i >= 0; i--) {
+            GameObject obj = dynamicObjects.get(i);
+            if (windowDim.y() < obj.getCenter().y()) {
+                if (obj.equals(ball)) {
                     if (this.lifeGraphic.getCurrentLives() == 1) {
                         endGame(LOSE_MSG);
                     } else {
                         this.lifeGraphic.removeHeart();
                         centerBall();
                     }
-                }
-            } else {
-                if (windowDim.y() < obj.getCenter().y()) {
-                    this.gameObjects().removeGameObject(obj);
+                } else {
+                    releaseObj(obj);
                 }
             }
         }
     }
 
+    /**
+     * Releases the pucks and hearts still in play to their pools, before the
+     * game is reset. They are removed from the previous game's objects, so
+     * the next game can add them again.
+     */
+    private void releaseAll() {
+        for (int i = dynamicObjects.size() - 1; i >= 0; i--) {
+            if (!dynamicObjects.get(i).equals(ball)) {
+                releaseObj(dynamicObjects.get(i));
+            }
+        }
+        dynamicObjects.clear();
+    }
+
+    /**
+     * Removes an object that fell below the window or was collected, and
+     * releases pucks and hearts to their pools.
+     * @param obj Game object to remove
+     */
+    private void releaseObj(GameObject obj) {
+        if (!removeObj(obj)) {
+            return;
+        }
+        if (obj instanceof Heart) {
+            heartPool.release((Heart) obj);
+        } else if (obj instanceof Ball) {
+            puckPool.release((Ball) obj);
+        }
+    }
+
+    /**
+     * Adds a life for a heart the user paddle collected, and removes the
+     * heart like any other pooled object that leaves the game.
+     * @param heart Heart collected by the paddle
+     */
+    private void collectHeart(Heart heart) {
+        this.lifeGraphic.addNewHeart();
+        releaseObj(heart);
+    }
+
+    /**
+     * Resets a heart released to the pool.
+     * @param heart Heart to reset
+     */
+    private void resetHeart(Heart heart) {
+        heart.setVelocity(Vector2.ZERO);
+        heart.setCollector(null, null);
+    }
+
     /**
      * Centers the ball in the game window and sets its velocity.
      */
@@ -0,0 +1,264 @@
+package bricker.main;
+
+import bricker.gameobjects.Ball;
+import bricker.gameobjects.Paddle;
+import danogl.gui.ImageReader;
+import danogl.gui.Sound;
+import danogl.gui.SoundReader;
+import danogl.gui.UserInputListener;
+import danogl.gui.WindowController;
+import danogl.gui.rendering.ImageRenderable;
+
+import java.awt.event.KeyEvent;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.util.function.IntPredicate;
+
+/**
+ * Runs Bricker games without a window, calling the manager's update with a
+ * fixed timestep as fast as the CPU allows. Images and sounds are not read,
+ * the window only answers its size and records the end-of-game dialog, and
+ * the paddle is moved by a bot that follows the main ball, or by any
+ * scripted key predicate.
+ *
+ * Games are seeded, so the same seed and paddle script play out the same
+ * way, which makes the runner usable for regression tests, for tuning the
+ * balance of the collision strategies and for profiling.
+ *
+ * @author Emmanuelle Schnitzer
+ * @author Amit Moses
+ */
+public class HeadlessBricker {
+    // Constants for the simulation
+    private static final float DELTA_TIME = 1 / 60f;
+    private static final float DEFAULT_MAX_SECONDS = 600;
+    private static final int DEFAULT_GAMES = 100;
+    private static final long DEFAULT_SEED = 0;
+    private static final float BOT_DEAD_ZONE = 10;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double PERCENT = 100;
+
+    // Outcomes of a game
+    private static final String WIN = "win";
+    private static final String LOSE = "lose";
+    private static final String TIMEOUT = "timeout";
+
+    // Constants for the report
+    private static final String GAME_HEADER = "game,outcome,game_seconds,bricks_left,lives";
+    private static final String GAME_FORMAT = "%d,%s,%.2f,%d,%d%n";
+    private static final String SUMMARY_FORMAT = "Wins: %d, losses: %d, timeouts: %d%n";
+    private static final String SPEED_FORMAT = "Simulated %.0f game seconds in %.2f seconds (%.0fx real time)%n";
+    private static final String POOL_FORMAT = "%s pool over %d games: %d hits, %d misses, %.1f%% hit rate%n";
+
+    /**
+     * The simulated game.
+     */
+    private BrickerGameManager manager;
+
+    /**
+     * Image reader that reads nothing: no object is rendered.
+     */
+    private ImageReader imageReader;
+
+    /**
+     * Sound reader that reads nothing: balls are silent.
+     */
+    private SoundReader soundReader;
+
+    /**
+     * Input listener that answers key presses from the paddle script.
+     */
+    private UserInputListener inputListener;
+
+    /**
+     * Window controller that records the end-of-game dialog.
+     */
+    private WindowController windowController;
+
+    /**
+     * Tells whether a key is pressed in the current frame.
+     */
+    private IntPredicate keys;
+
+    /**
+     * Outcome of the current game, or null while it is played.
+     */
+    private String outcome;
+
+    /**
+     * Number of frames simulated in the current game.
+     */
+    private long frames;
+
+    /**
+     * Main method to simulate games and print their outcomes, followed by the
+     * hit counters of the pools over all games, since the manager keeps its
+     * pools across resets.
+     * @param args Command line arguments: rows and columns of bricks, number
+     *             of games, game seconds before a game times out, and seed.
+     *             Every argument is optional, but rows and columns go together.
+     */
+    public static void main(String[] args) {
+        BrickerGameManager manager = args.length >= 2
+                ? new BrickerGameManager(BrickerGameManager.TITLE, BrickerGameManager.WINDOW_SCALE,
+                Integer.parseInt(args[0]), Integer.parseInt(args[1]))
+                : new BrickerGameManager(BrickerGameManager.TITLE, BrickerGameManager.WINDOW_SCALE);
+        int games = args.length > 2 ? Integer.parseInt(args[2]) : DEFAULT_GAMES;
+        float maxSeconds = args.length > 3 ? Float.parseFloat(args[3]) : DEFAULT_MAX_SECONDS;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : DEFAULT_SEED;
+
+        HeadlessBricker runner = new HeadlessBricker(manager, seed);
+        int wins = 0;
+        int losses = 0;
+        double gameSeconds = 0;
+        long start = System.nanoTime();
+        System.out.println(GAME_HEADER);
+        for (int game = 0; game < games; game++) {
+            String result = runner.playGame(maxSeconds);
+            if (result.equals(WIN)) {
+                wins++;
+            } else if (result.equals(LOSE)) {
+                losses++;
+            }
+            gameSeconds += runner.getGameSeconds();
+            System.out.printf(GAME_FORMAT, game, result, runner.getGameSeconds(),
+                    manager.getBricksLeft(), manager.getLives());
+        }
+        double wallSeconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+
+        System.out.printf(SUMMARY_FORMAT, wins, losses, games - wins - losses);
+        System.out.printf(SPEED_FORMAT, gameSeconds, wallSeconds, gameSeconds / wallSeconds);
+        System.out.printf(POOL_FORMAT, "Puck", games, manager.getPuckPool().getHits(),
+                manager.getPuckPool().getMisses(), manager.getPuckPool().getHitRate() * PERCENT);
+        System.out.printf(POOL_FORMAT, "Heart", games, manager.getHeartPool().getHits(),
+                manager.getHeartPool().getMisses(), manager.getHeartPool().getHitRate() * PERCENT);
+    }
+
+    /**
+     * Constructs a runner for a game, with the paddle moved by the bot.
+     * @param manager The game to simulate, not yet initialized
+     * @param seed Seed of the game's random number generator
+     */
+    public HeadlessBricker(BrickerGameManager manager, long seed) {
+        this.manager = manager;
+        this.manager.setSeed(seed);
+        this.keys = this::followBall;
+        this.windowController = stub(WindowController.class, (proxy, method, args) ->
+                switch (method.getName()) {
+                    case "getWindowDimensions" -> BrickerGameManager.WINDOW_SCALE;
+                    case "openYesNoDialog" -> endGame((String) args[0]);
+                    default -> null;
+                });
+        this.inputListener = stub(UserInputListener.class, (proxy, method, args) ->
+                method.getName().equals("isKeyPressed") ? keys.test((Integer) args[0]) : null);
+        this.imageReader = new ImageReader(windowController) {
+            @Override
+            public ImageRenderable readImage(String path, boolean isTopLeftPixelTransparent) {
+                return null;
+            }
+        };
+        this.soundReader = new SoundReader(windowController) {
+            @Override
+            public Sound readSound(String path) {
+                return null;
+            }
+        };
+    }
+
+    /**
+     * Replaces the paddle bot with a script of key presses.
+     * @param keys Tells whether a key code is pressed in the current frame.
+     *             It may read {@link #getGameSeconds} and the manager's objects.
+     */
+    public void setKeys(IntPredicate keys) {
+        this.keys = keys;
+    }
+
+    /**
+     * Plays a new game until it is won or lost, or until it times out.
+     * @param maxSeconds Game seconds before the game times out
+     * @return "win", "lose" or "timeout"
+     */
+    public String playGame(float maxSeconds) {
+        outcome = null;
+        frames = 0;
+        manager.initializeGame(imageReader, soundReader, inputListener, windowController);
+        while (outcome == null && getGameSeconds() < maxSeconds) {
+            manager.update(DELTA_TIME);
+            frames++;
+        }
+        return outcome == null ? TIMEOUT : outcome;
+    }
+
+    /**
+     * Retrieves the game time simulated in the current game.
+     * @return Game seconds since the game started
+     */
+    public float getGameSeconds() {
+        return frames * DELTA_TIME;
+    }
+
+    /**
+     * Retrieves the simulated game.
+     * @return Game manager
+     */
+    public BrickerGameManager getManager() {
+        return manager;
+    }
+
+    /**
+     * Records the outcome of the game from the end-of-game dialog. Only the
+     * first dialog counts, in case the game is won and lost in the same frame.
+     * @param message Message of the dialog
+     * @return False, so the manager does not reset the game by itself
+     */
+    private boolean endGame(String message) {
+        if (outcome == null) {
+            outcome = message.startsWith(BrickerGameManager.WIN_MSG) ? WIN : LOSE;
+        }
+        return false;
+    }
+
+    /**
+     * The paddle bot: presses the arrow key towards the main ball.
+     * @param key Key code
+     * @return True if the key is pressed, false otherwise
+     */
+    private boolean followBall(int key) {
+        Paddle paddle = manager.getUserPaddle();
+        Ball ball = manager.getMainBall();
+        float offset = ball.getCenter().x() - paddle.getCenter().x();
+        if (key == KeyEvent.VK_RIGHT) {
+            return offset > BOT_DEAD_ZONE;
+        }
+        return key == KeyEvent.VK_LEFT && offset < -BOT_DEAD_ZONE;
+    }
+
+    /**
+     * Implements an interface with a handler, answering the default value of
+     * the return type when the handler returns null.
+     * @param type The interface
+     * @param handler Answers the calls, or returns null for the default
+     * @param <T> Type of the interface
+     * @return The stub
+     */
+    private static <T> T stub(Class<T> type, InvocationHandler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                (proxy, method, args) -> {
+                    if (method.getDeclaringClass() == Object.class) {
+                        return switch (method.getName()) {
+                            case "equals" -> proxy == args[0];
+                            case "hashCode" -> System.identityHashCode(proxy);
+                            default -> type.getSimpleName();
+                        };
+                    }
+                    Object result = handler.invoke(proxy, method, args);
+                    Class<?> returnType = method.getReturnType();
+                    if (result == null && returnType.isPrimitive() && returnType != void.class) {
+                        return Array.get(Array.newInstance(returnType, 1), 0);
+                    }
+                    return result;
+                }));
+    }
+}
\ No newline at end of file
@@ -2,20 +2,21 @@ package bricker.main;
 
 /**
  * Enum representing various asset paths used in the Bricker game.
- * Provides methods to retrieve the path as a string.
+ * Provides methods to retrieve the path as a string, and tells how the asset
+ * is loaded, so every asset can be loaded up front by {@link AssetRegistry}.
  *
  * @author Emmanuelle Schnitzer
  * @author Amit Moses
  */
 public enum Path {
-    HEART_IMAGE("assets/heart.png"),
-    BRICK_IMAGE("assets/brick.png"),
-    BALL_IMAGE("assets/ball.png"),
-    TURBO_IMAGE("assets/redball.png"),
-    PADDLE_IMAGE("assets/paddle.png"),
+    HEART_IMAGE("assets/heart.png", true),
+    BRICK_IMAGE("assets/brick.png", false),
+    BALL_IMAGE("assets/ball.png", true),
+    TURBO_IMAGE("assets/redball.png", true),
+    PADDLE_IMAGE("assets/paddle.png", false),
     BALL_SOUND("assets/blop.wav"),
-    PACK_IMAGE("assets/mockBall.png"),
-    BACKGROUND_IMAGE("assets/DARK_BG2_small.jpeg");
+    PACK_IMAGE("assets/mockBall.png", true),
+    BACKGROUND_IMAGE("assets/DARK_BG2_small.jpeg", false);
 
     /**
      * The path to the asset.
@@ -23,12 +24,53 @@ public enum Path {
     private String path;
 
     /**
-     * Constructs a new Path enum with the specified path.
+     * Whether the asset is a sound rather than an image.
+     */
+    private boolean isSound;
+
+    /**
+     * Whether the top-left pixel of the image is treated as transparent.
+     */
+    private boolean isTopLeftPixelTransparency;
+
+    /**
+     * Constructs a new Path enum for an image.
+     *
+     * @param path The path to the asset.
+     * @param isTopLeftPixelTransparency Whether the top-left pixel is transparent.
+     */
+    Path(String path, boolean isTopLeftPixelTransparency) {
+        this.path = path;
+        this.isSound = false;
+        this.isTopLeftPixelTransparency = isTopLeftPixelTransparency;
+    }
+
+    /**
+     * Constructs a new Path enum for a sound.
      *
      * @param path The path to the asset.
      */
     Path(String path) {
         this.path = path;
+        this.isSound = true;
+    }
+
+    /**
+     * Checks whether the asset is a sound.
+     *
+     * @return True for a sound, false for an image.
+     */
+    public boolean isSound() {
+        return isSound;
+    }
+
+    /**
+     * Checks whether the top-left pixel of the image is treated as transparent.
+     *
+     * @return True if the top-left pixel is transparent, false otherwise or for a sound.
+     */
+    public boolean isTopLeftPixelTransparency() {
+        return isTopLeftPixelTransparency;
     }
 
     /**